@@ -0,0 +1,86 @@
+package io.jzero.core;
+
+import io.jzero.antlr4.ApiLexer;
+import io.jzero.antlr4.ApiParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses one .api file outside the IDE into its symbols and syntax errors.
+ * <p>
+ * Every call creates its own lexer and parser, so files can be analyzed on any number of threads.
+ */
+public class ApiAnalyzer {
+
+    public static class Result {
+        private final ApiSymbols symbols;
+        private final List<ApiProblem> syntaxErrors;
+        private final LineIndex lineIndex;
+
+        Result(ApiSymbols symbols, List<ApiProblem> syntaxErrors, LineIndex lineIndex) {
+            this.symbols = symbols;
+            this.syntaxErrors = syntaxErrors;
+            this.lineIndex = lineIndex;
+        }
+
+        @NotNull
+        public ApiSymbols getSymbols() {
+            return symbols;
+        }
+
+        @NotNull
+        public List<ApiProblem> getSyntaxErrors() {
+            return syntaxErrors;
+        }
+
+        @NotNull
+        public LineIndex getLineIndex() {
+            return lineIndex;
+        }
+    }
+
+    private ApiAnalyzer() {
+    }
+
+    @NotNull
+    public static Result analyze(@NotNull String text) {
+        LineIndex lineIndex = new LineIndex(text);
+        List<ApiProblem> errors = new ArrayList<>();
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                                    String msg, RecognitionException e) {
+                int start;
+                int end;
+                if (offendingSymbol instanceof Token && ((Token) offendingSymbol).getStartIndex() >= 0) {
+                    Token token = (Token) offendingSymbol;
+                    start = token.getStartIndex();
+                    end = Math.max(start + 1, token.getStopIndex() + 1);
+                } else {
+                    start = lineIndex.getOffset(line, charPositionInLine + 1);
+                    end = start + 1;
+                }
+                errors.add(new ApiProblem(msg, start, end));
+            }
+        };
+
+        ApiLexer lexer = new ApiLexer(CharStreams.fromString(text));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(listener);
+        ApiParser parser = new ApiParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(listener);
+
+        ApiSymbols symbols = ApiSymbolCollector.collect(parser.api());
+        return new Result(symbols, errors.isEmpty() ? Collections.emptyList() : errors, lineIndex);
+    }
+}
@@ -0,0 +1,164 @@
+package io.jzero.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Imports between .api files, shared by every file of a batch so each file is read only once.
+ * <p>
+ * Nodes are added concurrently; the transitive type closure of a file is computed on first use and kept.
+ *
+ * @param <F> how files are identified, a VirtualFile in the IDE and a Path on the command line
+ */
+public class ApiImportGraph<F> {
+
+    public static class Node<F> {
+        final ApiSymbols symbols;
+        final List<F> imports;
+        final Set<String> missingImports;
+        final Map<String, F> aliases;
+
+        public Node(@NotNull ApiSymbols symbols, @NotNull List<F> imports, @NotNull Set<String> missingImports,
+                    @NotNull Map<String, F> aliases) {
+            this.symbols = symbols;
+            this.imports = imports;
+            this.missingImports = missingImports;
+            this.aliases = aliases;
+        }
+
+        /**
+         * @param resolver finds the file of an import path relative to the importing file, null if there is none
+         */
+        @NotNull
+        public static <F> Node<F> create(@NotNull ApiSymbols symbols, @NotNull Function<String, F> resolver) {
+            List<F> imports = new ArrayList<>();
+            Set<String> missingImports = new HashSet<>();
+            Map<String, F> aliases = new HashMap<>();
+            for (ApiSymbols.Import anImport : symbols.getImports()) {
+                F imported = resolver.apply(anImport.path);
+                if (imported == null) {
+                    missingImports.add(anImport.path);
+                    continue;
+                }
+                imports.add(imported);
+                if (anImport.alias != null) {
+                    aliases.putIfAbsent(anImport.alias, imported);
+                }
+            }
+            return new Node<>(symbols, imports, missingImports, aliases);
+        }
+
+        @NotNull
+        public ApiSymbols getSymbols() {
+            return symbols;
+        }
+    }
+
+    private final Map<F, Node<F>> nodes = new ConcurrentHashMap<>();
+    private final Map<F, Set<String>> importedTypes = new ConcurrentHashMap<>();
+    // reads files that are imported but were not part of the batch, null if they can not be read
+    private final Function<F, Node<F>> loader;
+
+    public ApiImportGraph(@NotNull Function<F, Node<F>> loader) {
+        this.loader = loader;
+    }
+
+    public void add(@NotNull F file, @NotNull Node<F> node) {
+        nodes.put(file, node);
+    }
+
+    @Nullable
+    public Node<F> get(@NotNull F file) {
+        Node<F> node = nodes.get(file);
+        if (node == null) {
+            node = loader.apply(file);
+            if (node != null) {
+                nodes.putIfAbsent(file, node);
+            }
+        }
+        return node;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Runs {@link ApiSemanticChecker} on a file of the graph.
+     */
+    @NotNull
+    public List<ApiProblem> check(@NotNull F file) {
+        Node<F> node = get(file);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        Map<String, Set<String>> aliasedTypes = new HashMap<>();
+        node.aliases.forEach((alias, imported) -> aliasedTypes.put(alias, getVisibleTypes(imported)));
+        return ApiSemanticChecker.check(node.symbols, getImportedTypes(file), node.missingImports, aliasedTypes);
+    }
+
+    /**
+     * Type names declared by the file itself and by everything it imports.
+     */
+    @NotNull
+    public Set<String> getVisibleTypes(@NotNull F file) {
+        Node<F> node = get(file);
+        if (node == null) {
+            return Collections.emptySet();
+        }
+        Set<String> types = new HashSet<>(node.symbols.getTypeNames());
+        types.addAll(getImportedTypes(file));
+        return types;
+    }
+
+    /**
+     * Type names declared by the files the given file imports, directly or transitively.
+     */
+    @NotNull
+    public Set<String> getImportedTypes(@NotNull F file) {
+        Set<String> types = importedTypes.get(file);
+        if (types == null) {
+            types = Collections.unmodifiableSet(collectImportedTypes(file));
+            importedTypes.putIfAbsent(file, types);
+        }
+        return types;
+    }
+
+    @NotNull
+    private Set<String> collectImportedTypes(@NotNull F file) {
+        Set<String> types = new HashSet<>();
+        Set<F> visited = new HashSet<>();
+        visited.add(file);
+        Deque<F> queue = new ArrayDeque<>();
+        queue.add(file);
+        while (!queue.isEmpty()) {
+            Node<F> node = get(queue.poll());
+            if (node == null) {
+                continue;
+            }
+            for (F imported : node.imports) {
+                if (!visited.add(imported)) {
+                    continue;
+                }
+                Node<F> importedNode = get(imported);
+                if (importedNode != null) {
+                    types.addAll(importedNode.symbols.getTypeNames());
+                    queue.add(imported);
+                }
+            }
+        }
+        return types;
+    }
+}
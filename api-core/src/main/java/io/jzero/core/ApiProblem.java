@@ -0,0 +1,31 @@
+package io.jzero.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An error in an .api file, syntax or semantic, located by file offsets.
+ */
+public class ApiProblem {
+    private final String message;
+    private final int start;
+    private final int end;
+
+    public ApiProblem(@NotNull String message, int start, int end) {
+        this.message = message;
+        this.start = start;
+        this.end = end;
+    }
+
+    @NotNull
+    public String getMessage() {
+        return message;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,85 @@
+package io.jzero.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Duplicate and unresolved symbol checks over an {@link ApiSymbols}.
+ * <p>
+ * Works on plain data only, it needs neither PSI nor a read action.
+ */
+public class ApiSemanticChecker {
+
+    private ApiSemanticChecker() {
+    }
+
+    /**
+     * @param symbols       the file to check
+     * @param importedTypes type names declared by the files it imports, directly or transitively
+     * @param missingImports import paths that do not point to an existing .api file
+     * @param aliasedTypes  for each alias of a resolved import, the type names reachable as alias.Type
+     */
+    @NotNull
+    public static List<ApiProblem> check(@NotNull ApiSymbols symbols,
+                                         @NotNull Set<String> importedTypes,
+                                         @NotNull Set<String> missingImports,
+                                         @NotNull Map<String, Set<String>> aliasedTypes) {
+        List<ApiProblem> problems = new ArrayList<>();
+        checkDuplicates(symbols, problems);
+
+        Set<String> localTypes = symbols.getTypeNames();
+        for (ApiSymbols.Reference reference : symbols.getReferences()) {
+            if (reference.qualifier != null) {
+                // other qualifiers are go packages, or aliases of imports that are already reported
+                Set<String> types = aliasedTypes.get(reference.qualifier);
+                if (types != null && !types.contains(reference.name)) {
+                    problems.add(new ApiProblem("can not resolve " + reference.qualifier + "." + reference.name, reference.start, reference.end));
+                }
+                continue;
+            }
+            if (localTypes.contains(reference.name) || importedTypes.contains(reference.name)) {
+                continue;
+            }
+            problems.add(new ApiProblem("can not resolve " + reference.name, reference.start, reference.end));
+        }
+
+        for (ApiSymbols.Import anImport : symbols.getImports()) {
+            if (missingImports.contains(anImport.path)) {
+                problems.add(new ApiProblem("can not resolve import " + anImport.path, anImport.start, anImport.end));
+            }
+        }
+        return problems;
+    }
+
+    private static void checkDuplicates(@NotNull ApiSymbols symbols, @NotNull List<ApiProblem> problems) {
+        Map<String, List<ApiSymbols.Declaration>> byKey = new HashMap<>();
+        for (ApiSymbols.Declaration declaration : symbols.getDeclarations()) {
+            byKey.computeIfAbsent(declaration.kind + ":" + declaration.key, k -> new ArrayList<>()).add(declaration);
+        }
+        byKey.forEach((key, declarations) -> {
+            if (declarations.size() < 2) {
+                return;
+            }
+            for (ApiSymbols.Declaration declaration : declarations) {
+                problems.add(new ApiProblem(duplicateMessage(declaration), declaration.start, declaration.end));
+            }
+        });
+    }
+
+    @NotNull
+    private static String duplicateMessage(@NotNull ApiSymbols.Declaration declaration) {
+        switch (declaration.kind) {
+            case STRUCT:
+                return "duplicate struct " + declaration.name;
+            case HANDLER:
+                return "duplicate handler " + declaration.name;
+            default:
+                return "duplicate route " + declaration.name;
+        }
+    }
+}
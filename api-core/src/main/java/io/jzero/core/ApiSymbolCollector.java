@@ -0,0 +1,145 @@
+package io.jzero.core;
+
+import io.jzero.antlr4.ApiParser;
+import io.jzero.antlr4.ApiParserBaseVisitor;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects {@link ApiSymbols} from a parse tree, the headless counterpart of the plugin's PSI symbol table.
+ */
+public class ApiSymbolCollector extends ApiParserBaseVisitor<Void> {
+    private final ApiSymbols symbols = new ApiSymbols();
+    // @server prefix of the service being visited
+    private String prefix = "";
+
+    private ApiSymbolCollector() {
+    }
+
+    @NotNull
+    public static ApiSymbols collect(@NotNull ApiParser.ApiContext tree) {
+        ApiSymbolCollector collector = new ApiSymbolCollector();
+        collector.visit(tree);
+        return collector.symbols;
+    }
+
+    @Override
+    public Void visitStructNameId(ApiParser.StructNameIdContext ctx) {
+        TerminalNode ident = ctx.IDENT();
+        if (ident != null && isTypeDeclaration(ctx)) {
+            Token token = ident.getSymbol();
+            String name = token.getText();
+            symbols.addDeclaration(new ApiSymbols.Declaration(ApiSymbols.Kind.STRUCT, name, name, start(token), end(token)));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitServiceStatement(ApiParser.ServiceStatementContext ctx) {
+        prefix = "";
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Void visitIdentPair(ApiParser.IdentPairContext ctx) {
+        // key COLON value, repeated
+        for (int i = 0; i + 2 < ctx.getChildCount(); i++) {
+            ParseTree child = ctx.getChild(i);
+            if (child instanceof ApiParser.KeyContext && "prefix".equals(child.getText())) {
+                prefix = text(ctx.getChild(i + 2));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitHandlerValue(ApiParser.HandlerValueContext ctx) {
+        String text = text(ctx);
+        symbols.addDeclaration(new ApiSymbols.Declaration(ApiSymbols.Kind.HANDLER, text, text, start(ctx.getStart()), end(ctx.getStop())));
+        return null;
+    }
+
+    @Override
+    public Void visitHttpRoute(ApiParser.HttpRouteContext ctx) {
+        String text = text(ctx);
+        symbols.addDeclaration(new ApiSymbols.Declaration(ApiSymbols.Kind.ROUTE, text, prefix + text, start(ctx.getStart()), end(ctx.getStop())));
+        return null;
+    }
+
+    @Override
+    public Void visitImportValue(ApiParser.ImportValueContext ctx) {
+        TerminalNode value = ctx.VALUE();
+        if (value != null) {
+            Token token = value.getSymbol();
+            String alias = ctx.IDENT() != null ? ctx.IDENT().getText() : null;
+            symbols.addImport(new ApiSymbols.Import(token.getText().replaceAll("\"", ""), alias, start(token), end(token)));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitReferenceId(ApiParser.ReferenceIdContext ctx) {
+        TerminalNode ident = ctx.IDENT();
+        if (ident == null) {
+            return null;
+        }
+        Token token = ident.getSymbol();
+        // alias.Type
+        TerminalNode qualifier = ctx.pkg() != null ? ctx.pkg().IDENT() : null;
+        symbols.addReference(new ApiSymbols.Reference(qualifier != null ? qualifier.getText() : null, token.getText(), start(token), end(token)));
+        return null;
+    }
+
+    @Override
+    public Void visitBody(ApiParser.BodyContext ctx) {
+        addReference(ctx.IDENT());
+        return null;
+    }
+
+    @Override
+    public Void visitInfoStatement(ApiParser.InfoStatementContext ctx) {
+        return null;
+    }
+
+    private void addReference(TerminalNode ident) {
+        if (ident != null) {
+            Token token = ident.getSymbol();
+            symbols.addReference(new ApiSymbols.Reference(token.getText(), start(token), end(token)));
+        }
+    }
+
+    // type Foo int, type (Foo int), type Foo {...} and type (Foo {...}), but not nested structs
+    private static boolean isTypeDeclaration(@NotNull ApiParser.StructNameIdContext ctx) {
+        ParserRuleContext parent = ctx.getParent();
+        if (parent instanceof ApiParser.TypeAliasContext || parent instanceof ApiParser.TypeGroupAliasContext) {
+            return true;
+        }
+        return parent instanceof ApiParser.StructTypeContext
+                && (parent.getParent() instanceof ApiParser.TypeStructContext || parent.getParent() instanceof ApiParser.TypeGroupBodyContext);
+    }
+
+    // source text including the whitespace between tokens, the same text the IDE sees
+    @NotNull
+    private static String text(@NotNull ParseTree tree) {
+        if (!(tree instanceof ParserRuleContext)) {
+            return tree.getText();
+        }
+        ParserRuleContext ctx = (ParserRuleContext) tree;
+        if (ctx.getStart() == null || ctx.getStop() == null || ctx.getStop().getStopIndex() < ctx.getStart().getStartIndex()) {
+            return ctx.getText();
+        }
+        return ctx.getStart().getInputStream().getText(Interval.of(ctx.getStart().getStartIndex(), ctx.getStop().getStopIndex()));
+    }
+
+    private static int start(@NotNull Token token) {
+        return token.getStartIndex();
+    }
+
+    private static int end(@NotNull Token token) {
+        return token.getStopIndex() + 1;
+    }
+}
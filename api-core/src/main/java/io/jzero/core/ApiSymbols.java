@@ -0,0 +1,146 @@
+package io.jzero.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Declarations, type references and imports of one .api file, located by offsets.
+ * <p>
+ * Plain data: it is filled either from the IDE's PSI or by {@link ApiSymbolCollector} from a parse tree,
+ * and checked by {@link ApiSemanticChecker}.
+ */
+public class ApiSymbols {
+
+    public enum Kind {
+        STRUCT,
+        HANDLER,
+        ROUTE
+    }
+
+    public static class Declaration {
+        public final Kind kind;
+        public final String name;
+        // duplicate key, for routes it includes the @server prefix
+        public final String key;
+        public final int start;
+        public final int end;
+
+        public Declaration(@NotNull Kind kind, @NotNull String name, @NotNull String key, int start, int end) {
+            this.kind = kind;
+            this.name = name;
+            this.key = key;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class Reference {
+        // the alias of alias.Type, null for unqualified names
+        @Nullable
+        public final String qualifier;
+        public final String name;
+        public final int start;
+        public final int end;
+
+        public Reference(@NotNull String name, int start, int end) {
+            this(null, name, start, end);
+        }
+
+        public Reference(@Nullable String qualifier, @NotNull String name, int start, int end) {
+            this.qualifier = qualifier;
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static class Import {
+        public final String path;
+        // import "path" as alias
+        @Nullable
+        public final String alias;
+        public final int start;
+        public final int end;
+
+        public Import(@NotNull String path, int start, int end) {
+            this(path, null, start, end);
+        }
+
+        public Import(@NotNull String path, @Nullable String alias, int start, int end) {
+            this.path = path;
+            this.alias = alias;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final List<Declaration> declarations = new ArrayList<>();
+    private final List<Reference> references = new ArrayList<>();
+    private final List<Import> imports = new ArrayList<>();
+
+    public void addDeclaration(@NotNull Declaration declaration) {
+        declarations.add(declaration);
+    }
+
+    /**
+     * Basic go types are not references and are dropped here.
+     */
+    public void addReference(@NotNull Reference reference) {
+        if (!reference.name.isEmpty() && (reference.qualifier != null || !isBasicType(reference.name))) {
+            references.add(reference);
+        }
+    }
+
+    public void addImport(@NotNull Import anImport) {
+        imports.add(anImport);
+    }
+
+    @NotNull
+    public List<Declaration> getDeclarations() {
+        return declarations;
+    }
+
+    @NotNull
+    public List<Reference> getReferences() {
+        return references;
+    }
+
+    @NotNull
+    public List<Import> getImports() {
+        return imports;
+    }
+
+    @NotNull
+    public Set<String> getTypeNames() {
+        Set<String> names = new HashSet<>();
+        for (Declaration declaration : declarations) {
+            if (declaration.kind == Kind.STRUCT) {
+                names.add(declaration.name);
+            }
+        }
+        return names;
+    }
+
+    public static boolean isBasicType(@NotNull String typeName) {
+        return typeName.equals("string") ||
+               typeName.equals("int") ||
+               typeName.equals("int64") ||
+               typeName.equals("int32") ||
+               typeName.equals("bool") ||
+               typeName.equals("boolean") ||
+               typeName.equals("float") ||
+               typeName.equals("float64") ||
+               typeName.equals("double") ||
+               typeName.equals("any") ||
+               typeName.equals("interface{}") ||
+               typeName.startsWith("[]") && isBasicType(typeName.substring(2).trim()) ||
+               typeName.startsWith("map[") ||
+               typeName.equals("time.Time") ||
+               typeName.equals("[]time.Time");
+    }
+}
@@ -0,0 +1,47 @@
+package io.jzero.core;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Converts between file offsets and 1-based line/column positions.
+ */
+public class LineIndex {
+    private final int[] lineStarts;
+    private final int length;
+
+    public LineIndex(@NotNull CharSequence text) {
+        int[] starts = new int[16];
+        int count = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        this.lineStarts = Arrays.copyOf(starts, count);
+        this.length = text.length();
+    }
+
+    public int getLine(int offset) {
+        int index = Arrays.binarySearch(lineStarts, Math.min(Math.max(offset, 0), length));
+        return (index >= 0 ? index : -index - 2) + 1;
+    }
+
+    public int getColumn(int offset) {
+        return Math.min(Math.max(offset, 0), length) - lineStarts[getLine(offset) - 1] + 1;
+    }
+
+    public int getOffset(int line, int column) {
+        if (line < 1) {
+            return 0;
+        }
+        if (line > lineStarts.length) {
+            return length;
+        }
+        return Math.min(lineStarts[line - 1] + Math.max(column - 1, 0), length);
+    }
+}
@@ -0,0 +1,202 @@
+package io.jzero.core.cli;
+
+import io.jzero.core.ApiAnalyzer;
+import io.jzero.core.ApiImportGraph;
+import io.jzero.core.ApiProblem;
+import io.jzero.core.LineIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validates a tree of .api files without an IDE, for CI.
+ * <p>
+ * Usage: {@code jzero-api-check [-j threads] [path...]}. Prints one {@code file:line:column: message}
+ * line per problem and exits with 1 if there are any, 2 on bad arguments.
+ */
+public class ApiValidator {
+    private static final String USAGE = "usage: jzero-api-check [-j threads] [path...]";
+
+    private final Map<Path, List<ApiProblem>> syntaxErrors = new ConcurrentHashMap<>();
+    private final Map<Path, LineIndex> lineIndexes = new ConcurrentHashMap<>();
+    private final ApiImportGraph<Path> graph = new ApiImportGraph<>(this::read);
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(@NotNull String[] args, @NotNull PrintStream out, @NotNull PrintStream err) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-h".equals(args[i]) || "--help".equals(args[i])) {
+                out.println(USAGE);
+                return 0;
+            }
+            if ("-j".equals(args[i])) {
+                try {
+                    parallelism = Integer.parseInt(args[++i]);
+                } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                    err.println(USAGE);
+                    return 2;
+                }
+                if (parallelism < 1) {
+                    err.println(USAGE);
+                    return 2;
+                }
+                continue;
+            }
+            roots.add(Paths.get(args[i]));
+        }
+        if (roots.isEmpty()) {
+            roots.add(Paths.get("."));
+        }
+
+        List<Path> files;
+        try {
+            files = collectFiles(roots);
+        } catch (IOException e) {
+            err.println("jzero-api-check: " + e.getMessage());
+            return 2;
+        }
+
+        ApiValidator validator = new ApiValidator();
+        Map<Path, List<ApiProblem>> problems = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ForEach<>(files, 0, files.size(), file -> {
+                ApiImportGraph.Node<Path> node = validator.read(file);
+                if (node != null) {
+                    validator.graph.add(file, node);
+                }
+            }));
+            pool.invoke(new ForEach<>(files, 0, files.size(), file -> {
+                List<ApiProblem> fileProblems = validator.check(file);
+                if (!fileProblems.isEmpty()) {
+                    problems.put(file, fileProblems);
+                }
+            }));
+        } finally {
+            pool.shutdown();
+        }
+
+        Path base = Paths.get("").toAbsolutePath();
+        int count = 0;
+        for (Path file : files) {
+            List<ApiProblem> fileProblems = problems.get(file);
+            if (fileProblems == null) {
+                continue;
+            }
+            LineIndex lineIndex = validator.lineIndexes.get(file);
+            String name = file.startsWith(base) ? base.relativize(file).toString() : file.toString();
+            for (ApiProblem problem : fileProblems) {
+                int line = lineIndex != null ? lineIndex.getLine(problem.getStart()) : 1;
+                int column = lineIndex != null ? lineIndex.getColumn(problem.getStart()) : 1;
+                out.println(name + ":" + line + ":" + column + ": " + problem.getMessage());
+            }
+            count += fileProblems.size();
+        }
+        err.println(count + " problems in " + problems.size() + " of " + files.size() + " .api files");
+        return count == 0 ? 0 : 1;
+    }
+
+    @NotNull
+    private static List<Path> collectFiles(@NotNull List<Path> roots) throws IOException {
+        Set<Path> files = new HashSet<>();
+        for (Path root : roots) {
+            try (Stream<Path> stream = Files.walk(root)) {
+                files.addAll(stream.filter(ApiValidator::isApiFile)
+                        .map(path -> path.toAbsolutePath().normalize())
+                        .collect(Collectors.toList()));
+            }
+        }
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static boolean isApiFile(@NotNull Path path) {
+        return path.getFileName() != null && path.getFileName().toString().endsWith(".api") && Files.isRegularFile(path);
+    }
+
+    @NotNull
+    private List<ApiProblem> check(@NotNull Path file) {
+        List<ApiProblem> problems = new ArrayList<>(syntaxErrors.getOrDefault(file, Collections.emptyList()));
+        problems.addAll(graph.check(file));
+        problems.sort(Comparator.comparingInt(ApiProblem::getStart));
+        return problems;
+    }
+
+    @Nullable
+    private ApiImportGraph.Node<Path> read(@NotNull Path file) {
+        String text;
+        try {
+            text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            syntaxErrors.put(file, Collections.singletonList(new ApiProblem("can not read file: " + e.getMessage(), 0, 0)));
+            return null;
+        }
+        ApiAnalyzer.Result result = ApiAnalyzer.analyze(text);
+        lineIndexes.put(file, result.getLineIndex());
+        if (!result.getSyntaxErrors().isEmpty()) {
+            syntaxErrors.put(file, result.getSyntaxErrors());
+        }
+
+        Path directory = file.getParent();
+        return ApiImportGraph.Node.create(result.getSymbols(), path -> {
+            Path imported = directory != null ? directory.resolve(path).normalize() : null;
+            return imported != null && isApiFile(imported) ? imported : null;
+        });
+    }
+
+    /**
+     * Applies an action to every item, splitting the range in halves until it is small enough to run directly.
+     */
+    private static class ForEach<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 4;
+
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final Consumer<T> action;
+
+        ForEach(List<T> items, int from, int to, Consumer<T> action) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    action.accept(items.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForEach<>(items, from, middle, action), new ForEach<>(items, middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.jzero.benchmark;
+
+import io.jzero.core.ApiAnalyzer;
+import io.jzero.core.ApiSemanticChecker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless analysis of one file with {@link ApiAnalyzer}: parse, collect symbols and run the semantic checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiAnalyzerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int structs;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"0", "2"})
+    public int depth;
+
+    @Param({"50"})
+    public int routes;
+
+    @Param({"5"})
+    public int imports;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = ApiCorpus.generate(structs, fields, depth, routes, imports);
+    }
+
+    @Benchmark
+    public int analyze() {
+        ApiAnalyzer.Result result = ApiAnalyzer.analyze(source);
+        return ApiSemanticChecker.check(result.getSymbols(), Collections.emptySet(), Collections.emptySet(), Collections.emptyMap()).size();
+    }
+}
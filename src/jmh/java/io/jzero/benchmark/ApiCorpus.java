@@ -0,0 +1,94 @@
+package io.jzero.benchmark;
+
+/**
+ * Synthetic .api source generator for the benchmarks.
+ * <p>
+ * The output only uses syntax accepted by {@code ApiParser}, so the parser never takes the
+ * error recovery path and the numbers reflect the happy path of the plugin.
+ */
+public final class ApiCorpus {
+
+    private ApiCorpus() {
+    }
+
+    /**
+     * @param structs number of top-level structs
+     * @param fields  number of fields per struct (and per nested struct)
+     * @param depth   nesting depth of anonymous structs inside every top-level struct, 0 for none
+     * @param routes  number of routes in the generated service
+     * @param imports number of import statements
+     */
+    public static String generate(int structs, int fields, int depth, int routes, int imports) {
+        StringBuilder sb = new StringBuilder(structs * fields * 48 + routes * 96);
+        sb.append("syntax = \"v1\"\n\n");
+        sb.append("info (\n")
+                .append("    title: \"benchmark\"\n")
+                .append("    desc: \"generated\"\n")
+                .append("    version: \"v1\"\n")
+                .append(")\n\n");
+
+        for (int i = 0; i < imports; i++) {
+            sb.append("import \"types/types").append(i).append(".api\"\n");
+        }
+        if (imports > 0) {
+            sb.append('\n');
+        }
+
+        sb.append("type (\n");
+        for (int i = 0; i < structs; i++) {
+            appendStruct(sb, "Type" + i, i, fields, depth, 1);
+        }
+        sb.append(")\n\n");
+
+        if (routes > 0) {
+            sb.append("@server (\n")
+                    .append("    group: bench\n")
+                    .append("    prefix: /api/v1\n")
+                    .append("    middleware: Auth,Log\n")
+                    .append(")\n");
+            sb.append("service bench-api {\n");
+            for (int i = 0; i < routes; i++) {
+                String req = "Type" + (structs == 0 ? 0 : i % structs);
+                sb.append("    @doc \"route ").append(i).append("\"\n");
+                sb.append("    @handler route").append(i).append('\n');
+                sb.append("    post /route").append(i).append(" (").append(req)
+                        .append(") returns (").append(req).append(")\n\n");
+            }
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    private static void appendStruct(StringBuilder sb, String name, int index, int fields, int depth, int indent) {
+        indent(sb, indent).append(name).append(" {\n");
+        for (int f = 0; f < fields; f++) {
+            indent(sb, indent + 1);
+            switch (f % 4) {
+                case 0:
+                    sb.append("Field").append(f).append(" string `json:\"field").append(f).append("\"`");
+                    break;
+                case 1:
+                    sb.append("Field").append(f).append(" []int64 `json:\"field").append(f).append(",optional\"`");
+                    break;
+                case 2:
+                    sb.append("Field").append(f).append(" map[string]*Type").append(index).append(" `json:\"field").append(f).append("\"`");
+                    break;
+                default:
+                    sb.append("Field").append(f).append(" bool `form:\"field").append(f).append(",default=true\"`");
+                    break;
+            }
+            sb.append('\n');
+        }
+        if (depth > 0) {
+            appendStruct(sb, "Nested" + depth, index, fields, depth - 1, indent + 1);
+        }
+        indent(sb, indent).append("}\n");
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int level) {
+        for (int i = 0; i < level; i++) {
+            sb.append("    ");
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,55 @@
+package io.jzero.benchmark;
+
+import io.jzero.antlr4.ApiLexer;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw {@link ApiLexer} throughput, the same work the highlighting lexer does on every file open.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiLexerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int structs;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"0", "2"})
+    public int depth;
+
+    @Param({"50"})
+    public int routes;
+
+    @Param({"5"})
+    public int imports;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = ApiCorpus.generate(structs, fields, depth, routes, imports);
+    }
+
+    @Benchmark
+    public int tokenize(Blackhole bh) {
+        ApiLexer lexer = new ApiLexer(CharStreams.fromString(source));
+        lexer.removeErrorListeners();
+        int count = 0;
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            bh.consume(token);
+            count++;
+        }
+        return count;
+    }
+}
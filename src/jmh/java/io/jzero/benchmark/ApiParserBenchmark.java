@@ -0,0 +1,62 @@
+package io.jzero.benchmark;
+
+import io.jzero.antlr4.ApiLexer;
+import io.jzero.antlr4.ApiParser;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApiParser#api()} on a pre-lexed token list, so only the parser is measured.
+ * Both prediction modes are covered: SLL is what a two-stage parse would try first,
+ * LL is what the plugin runs today.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiParserBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int structs;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"0", "2"})
+    public int depth;
+
+    @Param({"50"})
+    public int routes;
+
+    @Param({"5"})
+    public int imports;
+
+    @Param({"SLL", "LL"})
+    public String mode;
+
+    private List<? extends Token> tokens;
+    private PredictionMode predictionMode;
+
+    @Setup
+    public void setUp() {
+        String source = ApiCorpus.generate(structs, fields, depth, routes, imports);
+        ApiLexer lexer = new ApiLexer(CharStreams.fromString(source));
+        lexer.removeErrorListeners();
+        tokens = lexer.getAllTokens();
+        predictionMode = PredictionMode.valueOf(mode);
+    }
+
+    @Benchmark
+    public ParserRuleContext parse() {
+        ApiParser parser = new ApiParser(new CommonTokenStream(new ListTokenSource(tokens)));
+        parser.removeErrorListeners();
+        parser.getInterpreter().setPredictionMode(predictionMode);
+        return parser.api();
+    }
+}
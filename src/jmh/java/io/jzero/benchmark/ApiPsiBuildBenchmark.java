@@ -0,0 +1,64 @@
+package io.jzero.benchmark;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end PSI construction: lexing, parsing through the ANTLR adapter, AST and PSI creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiPsiBuildBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int structs;
+
+    @Param({"10"})
+    public int fields;
+
+    @Param({"0", "2"})
+    public int depth;
+
+    @Param({"50"})
+    public int routes;
+
+    @Param({"5"})
+    public int imports;
+
+    private ApiPsiFixture fixture;
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        source = ApiCorpus.generate(structs, fields, depth, routes, imports);
+        fixture = new ApiPsiFixture();
+        fixture.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public int buildPsi() {
+        PsiFile file = fixture.parse(source);
+        int[] count = new int[1];
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(PsiElement element) {
+                count[0]++;
+                super.visitElement(element);
+            }
+        });
+        return count[0];
+    }
+}
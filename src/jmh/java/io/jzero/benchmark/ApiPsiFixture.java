@@ -0,0 +1,37 @@
+package io.jzero.benchmark;
+
+import io.jzero.language.ApiLanguage;
+import io.jzero.parser.ApiParserDefinition;
+import io.jzero.psi.ApiASTFactory;
+import com.intellij.lang.LanguageASTFactory;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.ParsingTestCase;
+
+/**
+ * Headless PSI environment for benchmarks.
+ * <p>
+ * {@link ParsingTestCase} boots the mock application with just the parser definition and the
+ * AST factory registered, which is everything the .api PSI build needs.
+ */
+class ApiPsiFixture extends ParsingTestCase {
+
+    ApiPsiFixture() {
+        super("", "api", new ApiParserDefinition());
+        setName("benchmark");
+    }
+
+    void start() throws Exception {
+        setUp();
+        addExplicitExtension(LanguageASTFactory.INSTANCE, ApiLanguage.INSTANCE, new ApiASTFactory());
+    }
+
+    void stop() throws Exception {
+        tearDown();
+    }
+
+    PsiFile parse(String text) {
+        PsiFile file = createPsiFile("bench", text);
+        ensureParsed(file);
+        return file;
+    }
+}
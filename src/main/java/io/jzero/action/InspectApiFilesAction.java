@@ -0,0 +1,52 @@
+package io.jzero.action;
+
+import io.jzero.language.ApiBatchInspector;
+import io.jzero.ui.ApiProblemsView;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Checks all .api files of the project in the background and lists the problems in the Jzero tool window.
+ */
+public class InspectApiFilesAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return;
+        }
+        new Task.Backgroundable(project, "Inspecting .api files", true) {
+            private final ApiBatchInspector inspector = new ApiBatchInspector(project);
+            private List<ApiBatchInspector.FileReport> reports = Collections.emptyList();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                reports = inspector.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                ApiProblemsView.show(project, reports, inspector.getFileCount());
+            }
+        }.queue();
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -2,14 +2,13 @@ package io.jzero.completion;
 
 import io.jzero.antlr4.ApiParser;
 import io.jzero.parser.ApiParserDefinition;
-import io.jzero.psi.ApiFile;
-import io.jzero.psi.nodes.ApiRootNode;
-import io.jzero.psi.nodes.StructNameNode;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.InsertHandler;
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
 import com.intellij.codeInsight.lookup.AutoCompletionPolicy;
 import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.tree.IElementType;
@@ -17,10 +16,10 @@ import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
 
 public class ApiCompletionProvider extends ApiProvider {
+    private static final int MAX_TYPES = 200;
 
     public ApiCompletionProvider(int priority, @Nullable AutoCompletionPolicy completionPolicy) {
         super(priority, completionPolicy);
@@ -55,16 +54,29 @@ public class ApiCompletionProvider extends ApiProvider {
             }
         }
         if (canAdd) {
-            ApiRootNode root = ApiFile.getRoot(parameters.getOriginalFile());
-            if (root == null) {
-                return;
+            List<TypeCompletionIndex.Entry> entries = TypeCompletionIndex.of(parameters.getOriginalFile()).find(result.getPrefixMatcher());
+            if (entries.size() > MAX_TYPES) {
+                // the rest is offered once a longer prefix narrows the list down
+                result.restartCompletionOnAnyPrefixChange();
+                entries = entries.subList(0, MAX_TYPES);
+            }
+            for (TypeCompletionIndex.Entry entry : entries) {
+                result.addElement(createTypeLookupElement(entry));
             }
-            Map<String, Set<StructNameNode>> allStructMap = root.getAllStructMap();
-            allStructMap.forEach((s, typeNodes) -> {
-                result.addElement(createKeywordLookupElement(s));
-            });
         }
 
     }
 
+    // closer types get a higher priority, imported ones show the file that declares them
+    @NotNull
+    private LookupElement createTypeLookupElement(@NotNull TypeCompletionIndex.Entry entry) {
+        LookupElementBuilder builder = LookupElementBuilder.create(entry.getName())
+                .withBoldness(entry.getProximity() == TypeCompletionIndex.Proximity.SAME_FILE)
+                .withInsertHandler(getInsertHandler());
+        if (entry.getProximity() != TypeCompletionIndex.Proximity.SAME_FILE) {
+            builder = builder.withTypeText(entry.getFileName(), true);
+        }
+        int priority = getPriority() - entry.getProximity().ordinal();
+        return PrioritizedLookupElement.withPriority(builder, priority);
+    }
 }
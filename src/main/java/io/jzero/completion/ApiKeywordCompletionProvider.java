@@ -16,36 +16,146 @@
 
 package io.jzero.completion;
 
+import io.jzero.antlr4.ApiParser;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.InsertHandler;
 import com.intellij.codeInsight.lookup.AutoCompletionPolicy;
 import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
 import com.intellij.util.ProcessingContext;
+import org.antlr.jetbrains.adapter.lexer.RuleIElementType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keywords of the syntactic context at the caret.
+ * <p>
+ * The context is found once per completion by walking up from the caret, and only its keywords are
+ * offered. Their elements are built once per provider; each completion only wraps them with priority
+ * and completion policy, because the platform keeps per-session state on the elements it is given.
+ */
 public class ApiKeywordCompletionProvider extends ApiProvider {
 
-    @NotNull
-    private final String[] myKeywords;
+    enum Context {
+        // syntax, import, info, type, service and @server at the start of a declaration
+        TOP_LEVEL,
+        // keys and values of @server(...) before a service or a route
+        SERVER,
+        // keys of info(...) and @doc(...)
+        INFO,
+        // field and alias types, route bodies
+        TYPE,
+        // routes of a service
+        SERVICE,
+        // names being declared, nothing to offer
+        NONE
+    }
+
+    private static final Map<Context, String[]> KEYWORDS = new EnumMap<>(Context.class);
+
+    static {
+        KEYWORDS.put(Context.TOP_LEVEL, new String[]{"syntax", "import", "info", "type", "service", "server"});
+        KEYWORDS.put(Context.SERVER, new String[]{"jwt", "group", "middleware", "prefix", "timeout", "maxBytes",
+                "jwtTransition", "authType", "handler", "true", "false"});
+        KEYWORDS.put(Context.INFO, new String[]{"title", "desc", "author", "email", "version", "termsOfService",
+                "contactName", "contactURL", "contactEmail", "licenseName", "licenseURL", "consumes", "produces",
+                "schemes", "host", "basePath", "tags", "externalDocs", "description", "wrapCodeMsg",
+                "bizCodeEnumDescription", "securityDefinitionsFromJson", "useDefinitions", "true", "false"});
+        KEYWORDS.put(Context.TYPE, new String[]{"map", "bool", "uint8", "uint16", "uint32", "uint64", "int8",
+                "int16", "int32", "int64", "float32", "float64", "complex64", "complex128", "string", "int", "uint",
+                "uintptr", "byte", "rune", "any"});
+        KEYWORDS.put(Context.SERVICE, new String[]{"get", "head", "post", "put", "patch", "delete", "connect",
+                "options", "trace", "doc", "server", "handler"});
+        KEYWORDS.put(Context.NONE, new String[0]);
+    }
 
-    public ApiKeywordCompletionProvider(int priority, @Nullable InsertHandler<LookupElement> insertHandler, @NotNull String... keywords) {
+    private final Map<Context, List<LookupElementBuilder>> myElements = new EnumMap<>(Context.class);
+
+    public ApiKeywordCompletionProvider(int priority, @Nullable InsertHandler<LookupElement> insertHandler) {
         super(priority, insertHandler);
-        myKeywords = keywords;
+        createElements();
     }
 
-    public ApiKeywordCompletionProvider(int priority, @Nullable AutoCompletionPolicy completionPolicy, @NotNull String... keywords) {
+    public ApiKeywordCompletionProvider(int priority, @Nullable AutoCompletionPolicy completionPolicy) {
         super(priority, completionPolicy);
-        myKeywords = keywords;
+        createElements();
     }
 
+    private void createElements() {
+        for (Map.Entry<Context, String[]> entry : KEYWORDS.entrySet()) {
+            List<LookupElementBuilder> elements = new ArrayList<>();
+            for (String keyword : entry.getValue()) {
+                elements.add(createKeywordBuilder(keyword));
+            }
+            myElements.put(entry.getKey(), Collections.unmodifiableList(elements));
+        }
+    }
 
     @Override
-    protected void addCompletions(@NotNull CompletionParameters parameters, ProcessingContext context, @NotNull CompletionResultSet result) {
-        for (String keyword : myKeywords) {
-            result.addElement(createKeywordLookupElement(keyword));
+    protected void addCompletions(@NotNull CompletionParameters parameters, @NotNull ProcessingContext context, @NotNull CompletionResultSet result) {
+        for (LookupElementBuilder element : myElements.get(classify(parameters.getPosition()))) {
+            result.addElement(decorate(element));
         }
     }
 
+    /**
+     * The innermost rule around the element that decides what can be written there. Error elements of
+     * incomplete code are walked through like any other parent.
+     */
+    @NotNull
+    static Context classify(@NotNull PsiElement position) {
+        for (PsiElement element = position.getParent(); element != null && !(element instanceof PsiFile); element = element.getParent()) {
+            IElementType type = element.getNode() != null ? element.getNode().getElementType() : null;
+            if (!(type instanceof RuleIElementType)) {
+                continue;
+            }
+            switch (((RuleIElementType) type).getRuleIndex()) {
+                case ApiParser.RULE_structNameId:
+                case ApiParser.RULE_fieldName:
+                case ApiParser.RULE_serviceName:
+                case ApiParser.RULE_handlerValue:
+                case ApiParser.RULE_importValue:
+                case ApiParser.RULE_syntaxLit:
+                    return Context.NONE;
+                case ApiParser.RULE_identPair:
+                case ApiParser.RULE_serviceServerSpec:
+                case ApiParser.RULE_handlerPair:
+                case ApiParser.RULE_serviceHandler:
+                    return Context.SERVER;
+                case ApiParser.RULE_pair:
+                case ApiParser.RULE_infoStatement:
+                case ApiParser.RULE_serviceDoc:
+                    return Context.INFO;
+                case ApiParser.RULE_fieldType:
+                case ApiParser.RULE_normalFieldType:
+                case ApiParser.RULE_referenceId:
+                case ApiParser.RULE_body:
+                case ApiParser.RULE_typeFiled:
+                case ApiParser.RULE_structType:
+                case ApiParser.RULE_typeAlias:
+                case ApiParser.RULE_typeGroupAlias:
+                case ApiParser.RULE_typeGroupBody:
+                    return Context.TYPE;
+                case ApiParser.RULE_serviceSpec:
+                case ApiParser.RULE_serviceBody:
+                case ApiParser.RULE_serviceRoute:
+                    return Context.SERVICE;
+                case ApiParser.RULE_api:
+                    return Context.TOP_LEVEL;
+                default:
+                    break;
+            }
+        }
+        return Context.TOP_LEVEL;
+    }
 }
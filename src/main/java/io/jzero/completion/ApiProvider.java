@@ -39,19 +39,32 @@ public abstract class ApiProvider extends CompletionProvider<CompletionParameter
         myCompletionPolicy = completionPolicy;
     }
 
+    protected int getPriority() {
+        return myPriority;
+    }
+
+    @Nullable
+    protected InsertHandler<LookupElement> getInsertHandler() {
+        return myInsertHandler;
+    }
+
+    /**
+     * The undecorated element of a keyword, it can be created once and shared between completions.
+     */
     @NotNull
-    public LookupElement createKeywordLookupElement(@NotNull String keyword) {
+    protected LookupElementBuilder createKeywordBuilder(@NotNull String keyword) {
         InsertHandler<LookupElement> insertHandler = ObjectUtils.chooseNotNull(myInsertHandler,
                 createTemplateBasedInsertHandler("api_" + keyword));
-        LookupElement result = createKeywordLookupElement(keyword, myPriority, insertHandler);
-        return myCompletionPolicy != null ? myCompletionPolicy.applyPolicy(result) : result;
+        return LookupElementBuilder.create(keyword).withBoldness(true).withInsertHandler(insertHandler);
     }
 
-    public static LookupElement createKeywordLookupElement(@NotNull String keyword,
-                                                           int priority,
-                                                           @Nullable InsertHandler<LookupElement> insertHandler) {
-        LookupElementBuilder builder = LookupElementBuilder.create(keyword).withBoldness(true).withInsertHandler(insertHandler);
-        return PrioritizedLookupElement.withPriority(builder, priority);
+    /**
+     * Wraps a shared element with this provider's priority and completion policy, once per completion.
+     */
+    @NotNull
+    protected LookupElement decorate(@NotNull LookupElementBuilder builder) {
+        LookupElement result = PrioritizedLookupElement.withPriority(builder, myPriority);
+        return myCompletionPolicy != null ? myCompletionPolicy.applyPolicy(result) : result;
     }
 
     @Nullable
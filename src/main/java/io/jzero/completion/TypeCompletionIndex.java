@@ -0,0 +1,172 @@
+package io.jzero.completion;
+
+import io.jzero.psi.ApiSymbolTable;
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Type names visible in a .api file, its own and those of the files it imports.
+ * <p>
+ * The types an imported file brings in, its own and those of its imports, are kept on that file until one of
+ * the files involved or the file tree changes, so typing in the current file does not walk its imports again:
+ * its index is rebuilt from its own types and those cached lists. A name declared at several distances
+ * keeps the closest one.
+ */
+class TypeCompletionIndex {
+
+    enum Proximity {
+        SAME_FILE,
+        DIRECT_IMPORT,
+        TRANSITIVE_IMPORT
+    }
+
+    static class Entry {
+        private final String name;
+        private final Proximity proximity;
+        private final String fileName;
+
+        Entry(@NotNull String name, @NotNull Proximity proximity, @NotNull String fileName) {
+            this.name = name;
+            this.proximity = proximity;
+            this.fileName = fileName;
+        }
+
+        @NotNull
+        String getName() {
+            return name;
+        }
+
+        @NotNull
+        Proximity getProximity() {
+            return proximity;
+        }
+
+        /**
+         * The file that declares the type.
+         */
+        @NotNull
+        String getFileName() {
+            return fileName;
+        }
+    }
+
+    // the types an imported file brings in, and the files they come from
+    private static class ImportedTypes {
+        private final List<Entry> entries;
+        private final Set<PsiFile> files;
+
+        ImportedTypes(@NotNull List<Entry> entries, @NotNull Set<PsiFile> files) {
+            this.entries = entries;
+            this.files = files;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private TypeCompletionIndex(@NotNull List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    @NotNull
+    static TypeCompletionIndex of(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> {
+            Set<PsiFile> dependencies = new LinkedHashSet<>();
+            dependencies.add(file);
+            TypeCompletionIndex index = build(file, dependencies);
+            List<Object> trackers = new ArrayList<>(dependencies);
+            trackers.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+            return CachedValueProvider.Result.create(index, trackers.toArray());
+        });
+    }
+
+    /**
+     * The entries matched by the prefix matcher, closest first.
+     * <p>
+     * Every entry is tried: the platform matcher also matches in the middle of names, Info offers UserInfo,
+     * so the prefix can not narrow the entries down before matching.
+     */
+    @NotNull
+    List<Entry> find(@NotNull PrefixMatcher matcher) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (matcher.prefixMatches(entry.name)) {
+                result.add(entry);
+            }
+        }
+        result.sort(Comparator.comparing(Entry::getProximity));
+        return result;
+    }
+
+    @NotNull
+    private static TypeCompletionIndex build(@NotNull PsiFile file, @NotNull Set<PsiFile> dependencies) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (String name : ApiSymbolTable.of(file).getTypes().keySet()) {
+            entries.put(name, new Entry(name, Proximity.SAME_FILE, file.getName()));
+        }
+        List<Entry> transitive = new ArrayList<>();
+        for (PsiFile imported : ApiSymbolTable.importedFiles(file)) {
+            ImportedTypes types = importedTypes(imported);
+            dependencies.addAll(types.files);
+            for (Entry entry : types.entries) {
+                if (entry.proximity == Proximity.DIRECT_IMPORT) {
+                    entries.putIfAbsent(entry.name, entry);
+                } else {
+                    transitive.add(entry);
+                }
+            }
+        }
+        for (Entry entry : transitive) {
+            entries.putIfAbsent(entry.name, entry);
+        }
+        return new TypeCompletionIndex(new ArrayList<>(entries.values()));
+    }
+
+    @NotNull
+    private static ImportedTypes importedTypes(@NotNull PsiFile imported) {
+        return CachedValuesManager.getCachedValue(imported, () -> {
+            ImportedTypes types = collectImportedTypes(imported);
+            List<Object> trackers = new ArrayList<>(types.files);
+            trackers.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+            return CachedValueProvider.Result.create(types, trackers.toArray());
+        });
+    }
+
+    // breadth first over the imports, so each type is first seen at its shortest distance; the imported
+    // file's own types are direct imports of whoever imports it, the rest transitive ones
+    @NotNull
+    private static ImportedTypes collectImportedTypes(@NotNull PsiFile imported) {
+        Map<String, Entry> entries = new HashMap<>();
+        Set<PsiFile> visited = new LinkedHashSet<>();
+        Deque<PsiFile> queue = new ArrayDeque<>();
+        queue.add(imported);
+        visited.add(imported);
+        while (!queue.isEmpty()) {
+            PsiFile current = queue.poll();
+            Proximity proximity = current == imported ? Proximity.DIRECT_IMPORT : Proximity.TRANSITIVE_IMPORT;
+            for (String name : ApiSymbolTable.of(current).getTypes().keySet()) {
+                entries.putIfAbsent(name, new Entry(name, proximity, current.getName()));
+            }
+            for (PsiFile next : ApiSymbolTable.importedFiles(current)) {
+                if (visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return new ImportedTypes(Collections.unmodifiableList(new ArrayList<>(entries.values())), visited);
+    }
+}
@@ -0,0 +1,286 @@
+package io.jzero.diagnostic;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters of the plugin's subsystems, shown live in the Jzero tool window.
+ * <p>
+ * The code being measured creates its metrics once, keeps them in static fields and updates them
+ * through {@link LongAdder}s: recording costs a few nanoseconds and takes no lock, and nothing is
+ * read until the tool window polls the values.
+ */
+public final class Diagnostics {
+    // subsystem / name -> metric
+    private static final Map<String, Metric> METRICS = new ConcurrentHashMap<>();
+
+    private Diagnostics() {
+    }
+
+    public abstract static class Metric {
+        private final String subsystem;
+        private final String name;
+
+        Metric(@NotNull String subsystem, @NotNull String name) {
+            this.subsystem = subsystem;
+            this.name = name;
+        }
+
+        @NotNull
+        public String getSubsystem() {
+            return subsystem;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * How many times the metric was recorded.
+         */
+        public abstract long getCount();
+
+        /**
+         * The values of the metric for display, e.g. total 12.5 ms, avg 0.10 ms, max 2.00 ms.
+         */
+        @NotNull
+        public abstract String getSummary();
+
+        abstract void reset();
+    }
+
+    /**
+     * Durations of an operation: {@code long start = timer.start(); try { ... } finally { timer.stop(start); }}
+     */
+    public static class Timer extends Metric {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        // what the last recorded operation worked on, e.g. the size of a file, null if not given
+        private volatile String lastDetail;
+        private volatile long lastNanos;
+
+        Timer(@NotNull String subsystem, @NotNull String name) {
+            super(subsystem, name);
+        }
+
+        public long start() {
+            return System.nanoTime();
+        }
+
+        public void stop(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        /**
+         * Stops and remembers what the operation worked on, shown with its duration next to the totals.
+         */
+        public void stop(long start, @NotNull String detail) {
+            long nanos = System.nanoTime() - start;
+            record(nanos);
+            lastNanos = nanos;
+            lastDetail = detail;
+        }
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public @NotNull String getSummary() {
+            long count = getCount();
+            long total = totalNanos.sum();
+            String summary = String.format("total %.1f ms, avg %.2f ms, max %.2f ms",
+                    total / 1e6, count == 0 ? 0 : total / 1e6 / count, maxNanos.get() / 1e6);
+            String detail = lastDetail;
+            return detail == null ? summary : summary + String.format(", last %s in %.2f ms", detail, lastNanos / 1e6);
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            lastDetail = null;
+            lastNanos = 0;
+        }
+    }
+
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        Counter(@NotNull String subsystem, @NotNull String name) {
+            super(subsystem, name);
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long value) {
+            count.add(value);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public @NotNull String getSummary() {
+            return String.valueOf(getCount());
+        }
+
+        @Override
+        void reset() {
+            count.reset();
+        }
+    }
+
+    /**
+     * Lookups of a cache: each lookup is a request, those that had to compute the value are also misses.
+     */
+    public static class CacheStats extends Metric {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        CacheStats(@NotNull String subsystem, @NotNull String name) {
+            super(subsystem, name);
+        }
+
+        public void hit() {
+            requests.increment();
+        }
+
+        public void miss() {
+            requests.increment();
+            misses.increment();
+        }
+
+        /**
+         * Turns a lookup already counted as a hit into a miss, for caches that only tell when they compute.
+         */
+        public void missAfterHit() {
+            misses.increment();
+        }
+
+        @Override
+        public long getCount() {
+            return requests.sum();
+        }
+
+        @Override
+        public @NotNull String getSummary() {
+            long requests = getCount();
+            long misses = this.misses.sum();
+            return String.format("hit rate %.1f%%, %d misses", requests == 0 ? 0 : 100.0 * (requests - misses) / requests, misses);
+        }
+
+        @Override
+        void reset() {
+            requests.reset();
+            misses.reset();
+        }
+    }
+
+    /**
+     * The last value of a size, e.g. the number of files in an import graph.
+     */
+    public static class Gauge extends Metric {
+        private final LongAdder updates = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+        private volatile long value;
+
+        Gauge(@NotNull String subsystem, @NotNull String name) {
+            super(subsystem, name);
+        }
+
+        public void set(long value) {
+            this.value = value;
+            updates.increment();
+            max.accumulate(value);
+        }
+
+        @Override
+        public long getCount() {
+            return updates.sum();
+        }
+
+        @Override
+        public @NotNull String getSummary() {
+            return "last " + value + ", max " + max.get();
+        }
+
+        @Override
+        void reset() {
+            updates.reset();
+            max.reset();
+            value = 0;
+        }
+    }
+
+    @NotNull
+    public static Timer timer(@NotNull String subsystem, @NotNull String name) {
+        return register(new Timer(subsystem, name));
+    }
+
+    @NotNull
+    public static Counter counter(@NotNull String subsystem, @NotNull String name) {
+        return register(new Counter(subsystem, name));
+    }
+
+    @NotNull
+    public static CacheStats cache(@NotNull String subsystem, @NotNull String name) {
+        return register(new CacheStats(subsystem, name));
+    }
+
+    @NotNull
+    public static Gauge gauge(@NotNull String subsystem, @NotNull String name) {
+        return register(new Gauge(subsystem, name));
+    }
+
+    /**
+     * Every metric, by subsystem and name.
+     */
+    @NotNull
+    public static List<Metric> getMetrics() {
+        List<Metric> metrics = new ArrayList<>(METRICS.values());
+        metrics.sort(Comparator.comparing(Metric::getSubsystem).thenComparing(Metric::getName));
+        return metrics;
+    }
+
+    public static void reset() {
+        for (Metric metric : METRICS.values()) {
+            metric.reset();
+        }
+    }
+
+    // a metric registered twice under the same name is shared
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static <M extends Metric> M register(@NotNull M metric) {
+        Metric existing = METRICS.putIfAbsent(metric.getSubsystem() + "/" + metric.getName(), metric);
+        if (existing == null) {
+            return metric;
+        }
+        if (existing.getClass() != metric.getClass()) {
+            throw new IllegalArgumentException("Metric " + metric.getName() + " is already a " + existing.getClass().getSimpleName());
+        }
+        return (M) existing;
+    }
+}
@@ -0,0 +1,159 @@
+package io.jzero.diagnostic;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Leveled logger of the plugin, writing to idea.log and to a ring buffer of the last
+ * {@link #CAPACITY} entries shown in the Jzero tool window.
+ * <p>
+ * Messages are {@link MessageFormat} patterns formatted only when their level is enabled; a disabled call
+ * costs one comparison against a volatile field, so debug calls can stay on paths that run for every
+ * PSI element. The fixed-arity overloads keep disabled calls from allocating a varargs array.
+ * <pre>{@code
+ * private static final Log LOG = Log.of(MyClass.class);
+ * LOG.debug("style {0} found in {1}", style, path);
+ * }</pre>
+ */
+public final class Log {
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN
+    }
+
+    static final int CAPACITY = 500;
+
+    private static volatile int threshold = Level.INFO.ordinal();
+
+    private static final String[] BUFFER = new String[CAPACITY];
+    // number of entries ever appended, guarded by BUFFER
+    private static long appended;
+
+    private final String category;
+    private final Logger logger;
+
+    private Log(@NotNull Class<?> category) {
+        this.category = category.getSimpleName();
+        this.logger = Logger.getInstance(category);
+    }
+
+    @NotNull
+    public static Log of(@NotNull Class<?> category) {
+        return new Log(category);
+    }
+
+    @NotNull
+    public static Level getLevel() {
+        return Level.values()[threshold];
+    }
+
+    public static void setLevel(@NotNull Level level) {
+        threshold = level.ordinal();
+    }
+
+    public boolean isDebugEnabled() {
+        return threshold <= Level.DEBUG.ordinal();
+    }
+
+    public void debug(@NotNull String pattern, @Nullable Object arg) {
+        if (threshold <= Level.DEBUG.ordinal()) {
+            log(Level.DEBUG, pattern, new Object[]{arg}, null);
+        }
+    }
+
+    public void debug(@NotNull String pattern, @Nullable Object arg1, @Nullable Object arg2) {
+        if (threshold <= Level.DEBUG.ordinal()) {
+            log(Level.DEBUG, pattern, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    public void debug(@NotNull Supplier<String> message) {
+        if (threshold <= Level.DEBUG.ordinal()) {
+            log(Level.DEBUG, message.get(), null, null);
+        }
+    }
+
+    public void info(@NotNull String pattern, @Nullable Object arg) {
+        if (threshold <= Level.INFO.ordinal()) {
+            log(Level.INFO, pattern, new Object[]{arg}, null);
+        }
+    }
+
+    public void info(@NotNull String pattern, @Nullable Object arg1, @Nullable Object arg2) {
+        if (threshold <= Level.INFO.ordinal()) {
+            log(Level.INFO, pattern, new Object[]{arg1, arg2}, null);
+        }
+    }
+
+    // warnings are always enabled
+    public void warn(@NotNull String message, @Nullable Throwable t) {
+        log(Level.WARN, message, null, t);
+    }
+
+    public void warn(@NotNull String pattern, @Nullable Object arg, @Nullable Throwable t) {
+        log(Level.WARN, pattern, new Object[]{arg}, t);
+    }
+
+    /**
+     * The entries of the ring buffer, oldest first.
+     */
+    @NotNull
+    public static List<String> getEntries() {
+        synchronized (BUFFER) {
+            int size = (int) Math.min(appended, CAPACITY);
+            List<String> entries = new ArrayList<>(size);
+            for (long i = appended - size; i < appended; i++) {
+                entries.add(BUFFER[(int) (i % CAPACITY)]);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Number of entries ever appended, lets a viewer tell whether there is anything new.
+     */
+    public static long getAppended() {
+        synchronized (BUFFER) {
+            return appended;
+        }
+    }
+
+    public static void clear() {
+        synchronized (BUFFER) {
+            appended = 0;
+        }
+    }
+
+    private void log(@NotNull Level level, @NotNull String pattern, @Nullable Object[] args, @Nullable Throwable t) {
+        String message = args == null ? pattern : MessageFormat.format(pattern, args);
+        switch (level) {
+            case DEBUG:
+                logger.debug(message);
+                break;
+            case INFO:
+                logger.info(message);
+                break;
+            default:
+                logger.warn(message, t);
+                break;
+        }
+
+        String entry = new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()) + " " + level + " " + category + " - " + message;
+        if (t != null) {
+            entry += ": " + t;
+        }
+        synchronized (BUFFER) {
+            BUFFER[(int) (appended % CAPACITY)] = entry;
+            appended++;
+        }
+    }
+}
@@ -6,17 +6,13 @@ import io.jzero.language.ApiLanguage;
 import io.jzero.parser.ApiParserDefinition;
 import io.jzero.psi.nodes.ApiRootNode;
 import com.intellij.formatting.*;
-import com.intellij.formatting.alignment.AlignmentStrategy;
 import com.intellij.lang.ASTNode;
-import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.util.UserDataHolderBase;
-import com.intellij.psi.PsiElement;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.codeStyle.CodeStyleSettings;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
-import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -38,6 +34,7 @@ public class ApiFormatter implements FormattingModelBuilder {
     private static final IElementType LBRACK = ApiParserDefinition.token(ApiLexer.LBRACK);
     private static final IElementType RBRACK = ApiParserDefinition.token(ApiLexer.RBRACK);
     private static final IElementType STAR = ApiParserDefinition.token(ApiLexer.STAR);
+    private static final IElementType NORMAL_FIELD = ApiParserDefinition.rule(ApiParser.RULE_normalField);
     private static final IElementType FIELD_NAME = ApiParserDefinition.rule(ApiParser.RULE_fieldName);
     private static final IElementType FIELD_TYPE = ApiParserDefinition.rule(ApiParser.RULE_fieldType);
     private static final IElementType FIELD_TAG = ApiParserDefinition.rule(ApiParser.RULE_tag);
@@ -65,7 +62,6 @@ public class ApiFormatter implements FormattingModelBuilder {
     private static final IElementType IMPORT_GROUP = ApiParserDefinition.rule(ApiParser.RULE_importGroup);
     private static final IElementType IDENT_PAIR = ApiParserDefinition.rule(ApiParser.RULE_identPair);
     private static final IElementType IDENT_PAIR_VALUE = ApiParserDefinition.rule(ApiParser.RULE_identValue);
-    private static final Key<Alignment> TYPE_ALIGNMENT_INSIDE_STRUCT = Key.create("TYPE_ALIGNMENT_INSIDE_STRUCT");
     private static final IElementType INTERFACE = ApiParserDefinition.token(ApiLexer.INTERFACE);
     private static final IElementType RBRACE = ApiParserDefinition.token(ApiLexer.RBRACE);
     private static final IElementType STRUCT_TYPE = ApiParserDefinition.rule(ApiParser.RULE_structType);
@@ -73,7 +69,6 @@ public class ApiFormatter implements FormattingModelBuilder {
     private static final IElementType FIELD = ApiParserDefinition.rule(ApiParser.RULE_typeFiled);
     private static final IElementType GROUP_BODY = ApiParserDefinition.rule(ApiParser.RULE_typeGroupBody);
     private static final IElementType SERVICE_BODY = ApiParserDefinition.rule(ApiParser.RULE_serviceBody);
-    private static final IElementType LINE_COMMENT = ApiParserDefinition.token(ApiLexer.COMMENT);
     private static final IElementType ATSERVER = ApiParserDefinition.token(ApiLexer.ATSERVER);
 
     @NotNull
@@ -102,12 +97,14 @@ public class ApiFormatter implements FormattingModelBuilder {
     }
 
     @Override
-    public @NotNull FormattingModel createModel(PsiElement element, CodeStyleSettings settings) {
-        Block block = new ApiFormatterBlock(element.getNode(), null, Indent.getNoneIndent(), null, createSpacingBuilder(settings));
-        return FormattingModelProvider.createFormattingModelForPsiFile(element.getContainingFile(), block, settings);
+    public @NotNull FormattingModel createModel(@NotNull FormattingContext formattingContext) {
+        CodeStyleSettings settings = formattingContext.getCodeStyleSettings();
+        Block block = new ApiFormatterBlock(formattingContext.getNode(), null, Indent.getNoneIndent(), null,
+                createSpacingBuilder(settings), formattingContext.getFormattingRange(), null);
+        return FormattingModelProvider.createFormattingModelForPsiFile(formattingContext.getContainingFile(), block, settings);
     }
 
-    private static class ApiFormatterBlock extends UserDataHolderBase implements ASTBlock {
+    private static class ApiFormatterBlock implements ASTBlock {
         @NotNull
         private final ASTNode myNode;
         @Nullable
@@ -118,8 +115,27 @@ public class ApiFormatter implements FormattingModelBuilder {
         private final Indent myIndent;
         @NotNull
         private final SpacingBuilder mySpacingBuilder;
+        // the range being formatted, blocks outside of it are not expanded
+        @NotNull
+        private final TextRange myFormattingRange;
+        // the columns of the enclosing struct, for its typeFiled and normalField blocks
+        @Nullable
+        private final StructColumns myColumns;
+        // the columns of this struct's own fields, set when its sub blocks are built
+        @Nullable
+        private StructColumns myFieldColumns;
         @Nullable
         private List<Block> mySubBlocks;
+        // computed once, on first use by getSpacing
+        @Nullable
+        private Boolean myOneLine;
+        @Nullable
+        private Boolean myInterface;
+
+        private static final Spacing NONE = Spacing.createSpacing(0, 0, 0, false, 0);
+        private static final Spacing ONE = Spacing.createSpacing(1, 1, 0, false, 0);
+        private static final Spacing LINE_BREAK = Spacing.createSpacing(0, 0, 1, true, 1);
+        private static final Spacing LINE_BREAK_NO_KEEP = Spacing.createSpacing(0, 0, 1, false, 0);
 
         private static final TokenSet BLOCK_TOKEN_SET = TokenSet.create(
                 ApiParserDefinition.rule(ApiParser.RULE_infoStatement),
@@ -130,12 +146,16 @@ public class ApiFormatter implements FormattingModelBuilder {
                                   @Nullable Alignment alignment,
                                   @Nullable Indent indent,
                                   @Nullable Wrap wrap,
-                                  @NotNull SpacingBuilder spacingBuilder) {
+                                  @NotNull SpacingBuilder spacingBuilder,
+                                  @NotNull TextRange formattingRange,
+                                  @Nullable StructColumns columns) {
             myNode = node;
             myAlignment = alignment;
             myWrap = wrap;
             mySpacingBuilder = spacingBuilder;
             myIndent = indent;
+            myFormattingRange = formattingRange;
+            myColumns = columns;
         }
 
         @Override
@@ -151,45 +171,34 @@ public class ApiFormatter implements FormattingModelBuilder {
         @Override
         public @NotNull List<Block> getSubBlocks() {
             if (mySubBlocks == null) {
-                mySubBlocks = buildSubBlocks();
+                mySubBlocks = myFormattingRange.intersects(getTextRange()) ? buildSubBlocks() : Collections.emptyList();
             }
-            return new ArrayList<>(mySubBlocks);
+            return mySubBlocks;
         }
 
         @NotNull
         private List<Block> buildSubBlocks() {
-            AlignmentStrategy.AlignmentPerTypeStrategy strategy = null;
-            boolean isStruct = (getNode() != null ? getNode().getElementType() : null) == STRUCT_TYPE;
-            Alignment forType = null;
-            if (isStruct) {
-                strategy = AlignmentStrategy.createAlignmentPerTypeStrategy(ContainerUtil.list(FIELD, LINE_COMMENT, STRUCT_TYPE), STRUCT_TYPE, true);
-                forType = Alignment.createAlignment(true);
+            IElementType elementType = myNode.getElementType();
+            StructColumns columns = myColumns;
+            if (elementType == STRUCT_TYPE) {
+                columns = isOneLine() ? null : StructColumns.of(myNode);
+                myFieldColumns = columns;
+            } else if (elementType != FIELD) {
+                columns = null;
             }
 
-            List<Block> blocks = ContainerUtil.newArrayList();
+            List<Block> blocks = new ArrayList<>();
             for (ASTNode child = myNode.getFirstChildNode(); child != null; child = child.getTreeNext()) {
                 IElementType childType = child.getElementType();
                 if (child.getTextRange().getLength() == 0) continue;
                 if (childType == TokenType.WHITE_SPACE) continue;
-                Alignment alignment = strategy != null ? strategy.getAlignment(childType) : null;
-                ApiFormatterBlock e = buildSubBlock(child, alignment);
-                if (isStruct) {
-                    e.putUserDataIfAbsent(TYPE_ALIGNMENT_INSIDE_STRUCT, forType);
-                }
-                blocks.add(e);
+                boolean field = childType == FIELD || childType == NORMAL_FIELD;
+                blocks.add(new ApiFormatterBlock(child, null, calcIndent(child), null, mySpacingBuilder, myFormattingRange,
+                        field ? columns : null));
             }
             return Collections.unmodifiableList(blocks);
         }
 
-        @NotNull
-        private ApiFormatterBlock buildSubBlock(@NotNull ASTNode child, @Nullable Alignment alignment) {
-            if (child.getTreeParent().getElementType() == FIELD) {
-                alignment = getUserData(TYPE_ALIGNMENT_INSIDE_STRUCT);
-            }
-            Indent indent = calcIndent(child);
-            return new ApiFormatterBlock(child, alignment, indent, null, mySpacingBuilder);
-        }
-
         @NotNull
         private Indent calcIndent(@NotNull ASTNode child) {
             Indent indent = Indent.getNoneIndent();
@@ -245,18 +254,32 @@ public class ApiFormatter implements FormattingModelBuilder {
             if (child1 instanceof ApiFormatterBlock && child2 instanceof ApiFormatterBlock) {
                 ASTNode n1 = ((ApiFormatterBlock) child1).getNode();
                 ASTNode n2 = ((ApiFormatterBlock) child2).getNode();
-                PsiElement psi1 = n1 != null ? n1.getPsi() : null;
-                if (psi1 == null) {
+                if (n1 == null || n2 == null) {
                     return this.mySpacingBuilder.getSpacing(this, child1, child2);
                 }
-                if (n2 == null) {
-                    return this.mySpacingBuilder.getSpacing(this, child1, child2);
+                IElementType parentElementType = myNode.getElementType();
+                if (myColumns != null && parentElementType.equals(NORMAL_FIELD)) {
+                    Integer spaces = null;
+                    if (n1.getElementType().equals(FIELD_NAME) && n2.getElementType().equals(FIELD_TYPE)) {
+                        spaces = myColumns.spacesAfterName(myNode, n1);
+                    } else if (n1.getElementType().equals(FIELD_TYPE) && n2.getElementType().equals(FIELD_TAG)) {
+                        spaces = myColumns.spacesAfterType(myNode);
+                    }
+                    if (spaces != null) {
+                        return Spacing.createSpacing(spaces, spaces, 0, false, 0);
+                    }
+                }
+                // a comment after a field, on the same line
+                if (myFieldColumns != null && n1.getElementType().equals(FIELD) && ApiParserDefinition.COMMENTS.contains(n2.getElementType())) {
+                    ASTNode field = n1.getFirstChildNode();
+                    Integer spaces = field != null ? myFieldColumns.spacesBeforeComment(field) : null;
+                    if (spaces != null) {
+                        return Spacing.createSpacing(spaces, spaces, 0, false, 0);
+                    }
                 }
-                PsiElement parent = psi1.getParent();
-                IElementType parentElementType = parent.getNode().getElementType();
-                boolean oneLineType = !parent.textContains('\n');
+                boolean oneLineType = isOneLine();
                 if (n1.getElementType().equals(LBRACE) && n2.getElementType().equals(RBRACE)) {
-                    if (parent.getText().contains("interface")) {
+                    if (isInterface()) {
                         return none();
                     }
                     return lineBreak();
@@ -290,6 +313,7 @@ public class ApiFormatter implements FormattingModelBuilder {
                     return oneLineType ? none() : lineBreak(false);
                 }
                 if (n1.getElementType() == LBRACK
+                        || n1.getElementType() == RBRACK
                         || n2.getElementType() == RBRACK
                         || n1.getElementType() == STAR
                         || n2.getElementType() == STAR) {
@@ -299,20 +323,18 @@ public class ApiFormatter implements FormattingModelBuilder {
                     return none();
                 }
 
-                if (parent.getNode() != null && parentElementType.equals(PAIR)) {
+                if (parentElementType.equals(PAIR)) {
                     if (n1.getElementType().equals(COLON) && n2.getElementType().equals(VALUE)) {
-                        String value = n2.getText();
-                        if (value.startsWith(" ")) {
+                        if (startsWithSpace(n2)) {
                             return none();
                         }
                         return one();
                     }
                 }
 
-                if (parent.getNode() != null && parentElementType.equals(HANDLER_PAIR)) {
+                if (parentElementType.equals(HANDLER_PAIR)) {
                     if (n1.getElementType().equals(COLON) && n2.getElementType().equals(HANDLER_VALUE)) {
-                        String value = n2.getText();
-                        if (value.startsWith(" ")) {
+                        if (startsWithSpace(n2)) {
                             return none();
                         }
                         return one();
@@ -320,30 +342,27 @@ public class ApiFormatter implements FormattingModelBuilder {
                 }
 
 
-                if (parent.getNode() != null && parentElementType.equals(HANDLER_NEW)) {
+                if (parentElementType.equals(HANDLER_NEW)) {
                     if (n2.getElementType().equals(HANDLER_VALUE)) {
-                        String value = n2.getText();
-                        if (value.startsWith(" ")) {
+                        if (startsWithSpace(n2)) {
                             return none();
                         }
                         return one();
                     }
                 }
 
-                if (parent.getNode() != null && parentElementType.equals(IMPORT)) {
+                if (parentElementType.equals(IMPORT)) {
                     if (n2.getElementType().equals(IMPORT_VALUE)) {
-                        String value = n2.getText();
-                        if (value.startsWith(" ")) {
+                        if (startsWithSpace(n2)) {
                             return none();
                         }
                         return one();
                     }
                 }
 
-                if (parent.getNode() != null && parentElementType.equals(IDENT_PAIR)) {
+                if (parentElementType.equals(IDENT_PAIR)) {
                     if (n1.getElementType().equals(COLON) && n2.getElementType().equals(IDENT_PAIR_VALUE)) {
-                        String value = n2.getText();
-                        if (value.startsWith(" ")) {
+                        if (startsWithSpace(n2)) {
                             return none();
                         }
                         return one();
@@ -355,6 +374,22 @@ public class ApiFormatter implements FormattingModelBuilder {
             return this.mySpacingBuilder.getSpacing(this, child1, child2);
         }
 
+        // the block has no line break, e.g. type Foo {} or @server(group: foo)
+        private boolean isOneLine() {
+            if (myOneLine == null) {
+                myOneLine = !myNode.textContains('\n');
+            }
+            return myOneLine;
+        }
+
+        // interface{}: its braces stay together
+        private boolean isInterface() {
+            if (myInterface == null) {
+                myInterface = myNode.findChildByType(INTERFACE) != null;
+            }
+            return myInterface;
+        }
+
         @Override
         public @NotNull ChildAttributes getChildAttributes(int newChildIndex) {
             Indent childIndent = Indent.getNoneIndent();
@@ -375,12 +410,16 @@ public class ApiFormatter implements FormattingModelBuilder {
             return myNode.getFirstChildNode() == null;
         }
 
+        private static boolean startsWithSpace(@NotNull ASTNode node) {
+            return StringUtil.startsWithChar(node.getChars(), ' ');
+        }
+
         private static Spacing none() {
-            return Spacing.createSpacing(0, 0, 0, false, 0);
+            return NONE;
         }
 
         private static Spacing one() {
-            return Spacing.createSpacing(1, 1, 0, false, 0);
+            return ONE;
         }
 
         private static Spacing lineBreak() {
@@ -388,7 +427,7 @@ public class ApiFormatter implements FormattingModelBuilder {
         }
 
         private static Spacing lineBreak(boolean keepLineBreaks) {
-            return Spacing.createSpacing(0, 0, 1, keepLineBreaks, keepLineBreaks ? 1 : 0);
+            return keepLineBreaks ? LINE_BREAK : LINE_BREAK_NO_KEEP;
         }
 
     }
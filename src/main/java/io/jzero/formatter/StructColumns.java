@@ -0,0 +1,189 @@
+package io.jzero.formatter;
+
+import io.jzero.antlr4.ApiParser;
+import io.jzero.parser.ApiParserDefinition;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column widths of the fields of one struct, modelled on the cell rules of gofmt's tabwriter.
+ * <p>
+ * Each {@code name type tag // comment} line is a row of cells, the last one ending
+ * the line. Consecutive rows that have a cell in a column share its width: types start in the same column,
+ * so do the tags of consecutive tagged lines, and the trailing comments of consecutive commented lines.
+ * A commented line without a tag has an empty tag cell, a column whose cells are all empty takes no room.
+ * A line's last cell ends the blocks of the columns after it, so a field without a tag ends the tag block
+ * and one without a comment the comment block. A blank line, a comment on its own line, an embedded field
+ * or a nested struct ends every block. All rows come from one pass over the struct's children.
+ */
+class StructColumns {
+    private static final TokenSet COMMENTS = ApiParserDefinition.COMMENTS;
+    private static final TokenSet WHITE_SPACE = TokenSet.orSet(TokenSet.WHITE_SPACE, ApiParserDefinition.WHITESPACE);
+    private static final IElementType FIELD = ApiParserDefinition.rule(ApiParser.RULE_typeFiled);
+    private static final IElementType NORMAL_FIELD = ApiParserDefinition.rule(ApiParser.RULE_normalField);
+    private static final IElementType FIELD_NAME = ApiParserDefinition.rule(ApiParser.RULE_fieldName);
+    private static final IElementType FIELD_TYPE = ApiParserDefinition.rule(ApiParser.RULE_fieldType);
+    private static final IElementType FIELD_TAG = ApiParserDefinition.rule(ApiParser.RULE_tag);
+
+    // cells before the last one of a row: name, type, tag
+    private static final int NAME = 0;
+    private static final int TYPE = 1;
+    private static final int TAG = 2;
+
+    private static class Row {
+        // widths of the name, type and tag, 0 for a missing tag
+        private final int[] widths;
+        private final boolean tagged;
+        private boolean commented;
+        // column widths of the blocks the row is part of, -1 for an empty column
+        private final int[] columns = {-1, -1, -1};
+
+        Row(int nameWidth, int typeWidth, int tagWidth, boolean tagged) {
+            this.widths = new int[]{nameWidth, typeWidth, tagWidth};
+            this.tagged = tagged;
+        }
+
+        // cells followed by another one on the line, those that are aligned
+        int alignedCells() {
+            return commented ? 3 : tagged ? 2 : 1;
+        }
+    }
+
+    // normalField -> its row
+    private final Map<ASTNode, Row> rows = new HashMap<>();
+
+    private StructColumns() {
+    }
+
+    @NotNull
+    static StructColumns of(@NotNull ASTNode struct) {
+        StructColumns columns = new StructColumns();
+        // the rows of the struct, null where every block ends
+        List<Row> lines = new ArrayList<>();
+        // the row of the field just before, until something other than white space follows it
+        Row last = null;
+        for (ASTNode child = struct.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            IElementType type = child.getElementType();
+            if (WHITE_SPACE.contains(type)) {
+                if (StringUtil.countNewLines(child.getChars()) > 1) {
+                    lines.add(null);
+                }
+                continue;
+            }
+            if (COMMENTS.contains(type)) {
+                ASTNode previous = child.getTreePrev();
+                boolean ownLine = previous == null || WHITE_SPACE.contains(previous.getElementType()) && StringUtil.countNewLines(previous.getChars()) > 0;
+                if (!ownLine && last != null) {
+                    last.commented = true;
+                } else if (ownLine) {
+                    lines.add(null);
+                }
+                last = null;
+                continue;
+            }
+            last = null;
+            if (type != FIELD) {
+                continue;
+            }
+
+            ASTNode field = child.getFirstChildNode();
+            ASTNode name = field != null && field.getElementType() == NORMAL_FIELD ? field.findChildByType(FIELD_NAME) : null;
+            ASTNode fieldType = name != null ? field.findChildByType(FIELD_TYPE) : null;
+            if (fieldType == null) {
+                lines.add(null);
+                continue;
+            }
+            ASTNode tag = field.findChildByType(FIELD_TAG);
+            Row row = new Row(name.getTextLength(), width(fieldType), tag != null ? tag.getTextLength() : 0, tag != null);
+            columns.rows.put(field, row);
+            lines.add(row);
+            last = row;
+        }
+        for (int column = NAME; column <= TAG; column++) {
+            layOut(lines, column);
+        }
+        return columns;
+    }
+
+    /**
+     * Spaces between the name and the type of a field, null if the field is not part of this struct.
+     */
+    @Nullable
+    Integer spacesAfterName(@NotNull ASTNode field, @NotNull ASTNode name) {
+        Row row = rows.get(field);
+        return row != null ? row.columns[NAME] - name.getTextLength() + 1 : null;
+    }
+
+    /**
+     * Spaces between the type and the tag of a field, null if the field is not part of this struct.
+     */
+    @Nullable
+    Integer spacesAfterType(@NotNull ASTNode field) {
+        Row row = rows.get(field);
+        if (row == null || !row.tagged) {
+            return null;
+        }
+        return padding(row, TYPE);
+    }
+
+    /**
+     * Spaces between the end of a field, its tag or its type, and the comment after it on the same line;
+     * null if the field is not part of this struct or has no such comment.
+     */
+    @Nullable
+    Integer spacesBeforeComment(@NotNull ASTNode field) {
+        Row row = rows.get(field);
+        if (row == null || !row.commented) {
+            return null;
+        }
+        if (row.tagged) {
+            return padding(row, TAG);
+        }
+        // the empty tag cell is padded like any other, unless its whole column is empty
+        return padding(row, TYPE) + (row.columns[TAG] < 0 ? 0 : row.columns[TAG] + 1);
+    }
+
+    private static int padding(@NotNull Row row, int column) {
+        return Math.max(row.columns[column], 0) - row.widths[column] + 1;
+    }
+
+    // a block of a column is a run of rows that all have the cell
+    private static void layOut(@NotNull List<Row> lines, int column) {
+        int from = 0;
+        for (int i = 0; i <= lines.size(); i++) {
+            Row row = i < lines.size() ? lines.get(i) : null;
+            if (row != null && row.alignedCells() > column) {
+                continue;
+            }
+            int width = 0;
+            for (int j = from; j < i; j++) {
+                width = Math.max(width, lines.get(j).widths[column]);
+            }
+            for (int j = from; j < i; j++) {
+                lines.get(j).columns[column] = width == 0 ? -1 : width;
+            }
+            from = i + 1;
+        }
+    }
+
+    // the formatter removes whitespace inside types, map[string] int is written map[string]int
+    private static int width(@NotNull ASTNode fieldType) {
+        CharSequence chars = fieldType.getChars();
+        int width = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            if (!Character.isWhitespace(chars.charAt(i))) {
+                width++;
+            }
+        }
+        return width;
+    }
+}
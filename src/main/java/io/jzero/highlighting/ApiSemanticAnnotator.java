@@ -0,0 +1,61 @@
+package io.jzero.highlighting;
+
+import io.jzero.core.ApiSymbols;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.language.ApiExternalAnnotator;
+import io.jzero.parser.ApiParserDefinition;
+import io.jzero.psi.ApiSymbolTable;
+import io.jzero.psi.nodes.ServiceNameNode;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.Annotator;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Colours of custom type names and service names, read from the file's {@link ApiSymbolTable}.
+ * <p>
+ * Nothing is resolved and no other file is read, so colours show up with the first highlighting pass and
+ * during indexing. Checks, including unresolved types, are reported by {@link ApiExternalAnnotator}.
+ * Annotators are shared between highlighting threads, so this class must stay stateless.
+ */
+public class ApiSemanticAnnotator implements Annotator, DumbAware {
+
+    private static final Diagnostics.Timer TIMER = Diagnostics.timer("annotator", "semantic colours");
+
+    @Override
+    public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+        long start = TIMER.start();
+        try {
+            doAnnotate(element, holder);
+        } finally {
+            TIMER.stop(start);
+        }
+    }
+
+    private static void doAnnotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+        if (element instanceof ServiceNameNode) {
+            highlight(holder);
+            return;
+        }
+        ASTNode node = element.getNode();
+        if (node == null || node.getElementType() != ApiParserDefinition.IDENTIFIER) {
+            return;
+        }
+        PsiFile file = element.getContainingFile();
+        ApiSymbolTable.Symbol symbol = file != null
+                ? ApiSymbolTable.of(file).findAt(ApiSymbolTable.Kind.REFERENCE, node.getStartOffset()) : null;
+        if (symbol != null && !ApiSymbols.isBasicType(symbol.getName())) {
+            highlight(holder);
+        }
+    }
+
+    private static void highlight(@NotNull AnnotationHolder holder) {
+        holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
+                .textAttributes(ApiSyntaxHighlighter.IDENTIFIER)
+                .create();
+    }
+}
@@ -0,0 +1,115 @@
+package io.jzero.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Middlewares declared in the go files of internal/middleware, by the name used in @server(middleware: ...).
+ * <p>
+ * jzero generates {@code type AuthMiddleware struct} and {@code func NewAuthMiddleware()} for the middleware
+ * Auth; the offset is that of the constructor, or of the type when there is no constructor.
+ */
+public class MiddlewareIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> NAME = ID.create("io.jzero.middlewares");
+
+    private static final Pattern CONSTRUCTOR = Pattern.compile("\\bfunc\\s+New(\\w+)Middleware\\s*\\(");
+    private static final Pattern TYPE = Pattern.compile("\\btype\\s+(\\w+)Middleware\\s+struct\\b");
+
+    /**
+     * The declaration of a middleware in the internal/middleware folder of one service.
+     *
+     * @param middlewareFolder path of the internal/middleware folder
+     */
+    @Nullable
+    public static Pair<VirtualFile, Integer> find(@NotNull Project project, @NotNull String name, @NotNull String middlewareFolder) {
+        Pair<VirtualFile, Integer> location = findExact(project, name, middlewareFolder);
+        if (location == null && !name.isEmpty() && Character.isLowerCase(name.charAt(0))) {
+            location = findExact(project, Character.toUpperCase(name.charAt(0)) + name.substring(1), middlewareFolder);
+        }
+        return location;
+    }
+
+    @Nullable
+    private static Pair<VirtualFile, Integer> findExact(@NotNull Project project, @NotNull String name, @NotNull String middlewareFolder) {
+        Ref<Pair<VirtualFile, Integer>> location = Ref.create();
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, offset) -> {
+            if (file.getPath().startsWith(middlewareFolder + "/")) {
+                location.set(Pair.create(file, offset));
+                return false;
+            }
+            return true;
+        }, GlobalSearchScope.projectScope(project));
+        return location.get();
+    }
+
+    @NotNull
+    @Override
+    public ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Integer, FileContent> getIndexer() {
+        return content -> {
+            Map<String, Integer> result = new HashMap<>();
+            CharSequence text = content.getContentAsText();
+            Matcher constructor = CONSTRUCTOR.matcher(text);
+            while (constructor.find()) {
+                result.putIfAbsent(constructor.group(1), constructor.start());
+            }
+            Matcher type = TYPE.matcher(text);
+            while (type.find()) {
+                result.putIfAbsent(type.group(1), type.start());
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && "go".equals(file.getExtension()) && file.getPath().contains("/internal/middleware/");
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
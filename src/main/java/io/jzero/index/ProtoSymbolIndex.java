@@ -0,0 +1,222 @@
+package io.jzero.index;
+
+import io.jzero.proto.ProtoOutline;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Services, rpcs and messages of every .proto file by simple name, read with {@link ProtoOutline}.
+ * <p>
+ * The .proto file type usually belongs to another plugin, so files are picked by extension and indexed
+ * from their text.
+ */
+public class ProtoSymbolIndex extends FileBasedIndexExtension<String, List<ProtoSymbolIndex.Symbol>> {
+    public static final ID<String, List<Symbol>> NAME = ID.create("io.jzero.proto.symbols");
+
+    public enum Kind {
+        SERVICE,
+        RPC,
+        MESSAGE
+    }
+
+    public static class Symbol {
+        private final Kind kind;
+        // the service of an rpc, the qualified name of a message, null for services
+        @Nullable
+        private final String container;
+        private final int offset;
+
+        public Symbol(@NotNull Kind kind, @Nullable String container, int offset) {
+            this.kind = kind;
+            this.container = container;
+            this.offset = offset;
+        }
+
+        @NotNull
+        public Kind getKind() {
+            return kind;
+        }
+
+        @Nullable
+        public String getContainer() {
+            return container;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        // the index compares the values of a file with the stored ones to tell whether to update them
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Symbol)) {
+                return false;
+            }
+            Symbol symbol = (Symbol) o;
+            return kind == symbol.kind && offset == symbol.offset && Objects.equals(container, symbol.container);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, container, offset);
+        }
+    }
+
+    /**
+     * A symbol together with the file it is declared in.
+     */
+    public static class Location {
+        private final VirtualFile file;
+        private final String name;
+        private final Symbol symbol;
+
+        Location(@NotNull VirtualFile file, @NotNull String name, @NotNull Symbol symbol) {
+            this.file = file;
+            this.name = name;
+            this.symbol = symbol;
+        }
+
+        @NotNull
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        @NotNull
+        public Symbol getSymbol() {
+            return symbol;
+        }
+    }
+
+    @NotNull
+    public static Collection<String> getNames(@NotNull Project project) {
+        return FileBasedIndex.getInstance().getAllKeys(NAME, project);
+    }
+
+    /**
+     * Symbols with the given simple name, of any kind if kind is null.
+     */
+    @NotNull
+    public static List<Location> find(@NotNull String name, @Nullable Kind kind, @NotNull GlobalSearchScope scope) {
+        List<Location> locations = new ArrayList<>();
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, symbols) -> {
+            for (Symbol symbol : symbols) {
+                if (kind == null || symbol.kind == kind) {
+                    locations.add(new Location(file, name, symbol));
+                }
+            }
+            return true;
+        }, scope);
+        return locations;
+    }
+
+    @NotNull
+    @Override
+    public ID<String, List<Symbol>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<Symbol>, FileContent> getIndexer() {
+        return content -> {
+            Map<String, List<Symbol>> result = new HashMap<>();
+            ProtoOutline outline = ProtoOutline.scan(content.getContentAsText());
+            for (ProtoOutline.Service service : outline.getServices()) {
+                add(result, service.getName(), new Symbol(Kind.SERVICE, null, service.getNameOffset()));
+                for (ProtoOutline.Rpc rpc : service.getRpcs()) {
+                    add(result, rpc.getName(), new Symbol(Kind.RPC, service.getName(), rpc.getNameOffset()));
+                }
+            }
+            for (ProtoOutline.Message message : outline.getMessages()) {
+                add(result, message.getName(), new Symbol(Kind.MESSAGE, message.getQualifiedName(), message.getNameOffset()));
+            }
+            return result;
+        };
+    }
+
+    private static void add(@NotNull Map<String, List<Symbol>> result, @NotNull String name, @NotNull Symbol symbol) {
+        result.computeIfAbsent(name, k -> new ArrayList<>(1)).add(symbol);
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<Symbol>> getValueExternalizer() {
+        return new DataExternalizer<List<Symbol>>() {
+            @Override
+            public void save(@NotNull DataOutput out, List<Symbol> symbols) throws IOException {
+                out.writeInt(symbols.size());
+                for (Symbol symbol : symbols) {
+                    out.writeByte(symbol.kind.ordinal());
+                    out.writeBoolean(symbol.container != null);
+                    if (symbol.container != null) {
+                        out.writeUTF(symbol.container);
+                    }
+                    out.writeInt(symbol.offset);
+                }
+            }
+
+            @Override
+            public List<Symbol> read(@NotNull DataInput in) throws IOException {
+                int size = in.readInt();
+                List<Symbol> symbols = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    Kind kind = Kind.values()[in.readByte()];
+                    String container = in.readBoolean() ? in.readUTF() : null;
+                    symbols.add(new Symbol(kind, container, in.readInt()));
+                }
+                return symbols;
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && "proto".equals(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
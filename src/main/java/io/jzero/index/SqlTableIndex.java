@@ -0,0 +1,155 @@
+package io.jzero.index;
+
+import io.jzero.sql.SqlTableScanner;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tables created by the .sql files under desc/sql, by table name, read with {@link SqlTableScanner}.
+ * <p>
+ * A table created twice in one file keeps its first declaration.
+ */
+public class SqlTableIndex extends FileBasedIndexExtension<String, SqlTableIndex.Table> {
+    public static final ID<String, Table> NAME = ID.create("io.jzero.sql.tables");
+
+    public static class Table {
+        private final int offset;
+        private final List<String> columns;
+
+        public Table(int offset, @NotNull List<String> columns) {
+            this.offset = offset;
+            this.columns = columns;
+        }
+
+        /**
+         * Offset of the table name in its file.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        @NotNull
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        // the index compares the values of a file with the stored ones to tell whether to update them
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Table)) {
+                return false;
+            }
+            Table table = (Table) o;
+            return offset == table.offset && columns.equals(table.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(offset, columns);
+        }
+    }
+
+    /**
+     * The tables a .sql file creates, by name.
+     */
+    @NotNull
+    public static Map<String, Table> getTables(@NotNull Project project, @NotNull VirtualFile file) {
+        return FileBasedIndex.getInstance().getFileData(NAME, file, project);
+    }
+
+    /**
+     * The .sql files that create the table.
+     */
+    @NotNull
+    public static List<VirtualFile> findFiles(@NotNull String table, @NotNull GlobalSearchScope scope) {
+        return new ArrayList<>(FileBasedIndex.getInstance().getContainingFiles(NAME, table, scope));
+    }
+
+    @NotNull
+    @Override
+    public ID<String, Table> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Table, FileContent> getIndexer() {
+        return content -> {
+            Map<String, Table> result = new HashMap<>();
+            for (SqlTableScanner.Table table : SqlTableScanner.scan(content.getContentAsText())) {
+                result.putIfAbsent(table.getName(), new Table(table.getNameOffset(), table.getColumns()));
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Table> getValueExternalizer() {
+        return new DataExternalizer<Table>() {
+            @Override
+            public void save(@NotNull DataOutput out, Table table) throws IOException {
+                out.writeInt(table.offset);
+                out.writeInt(table.columns.size());
+                for (String column : table.columns) {
+                    out.writeUTF(column);
+                }
+            }
+
+            @Override
+            public Table read(@NotNull DataInput in) throws IOException {
+                int offset = in.readInt();
+                int size = in.readInt();
+                List<String> columns = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    columns.add(in.readUTF());
+                }
+                return new Table(offset, columns);
+            }
+        };
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && "sql".equals(file.getExtension()) && file.getPath().contains("/desc/sql/");
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,232 @@
+package io.jzero.language;
+
+import io.jzero.core.ApiImportGraph;
+import io.jzero.core.ApiProblem;
+import io.jzero.core.LineIndex;
+import io.jzero.psi.ApiFile;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.concurrency.CancellablePromise;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks every .api file of a project: syntax errors plus everything {@link io.jzero.core.ApiSemanticChecker} reports.
+ * <p>
+ * Files are read on a bounded pool, each in its own non-blocking read action, into one shared
+ * {@link ApiImportGraph}; the checks then run on the same pool without any read lock.
+ */
+public class ApiBatchInspector {
+
+    public static class FileReport {
+        private final VirtualFile file;
+        private final List<ApiProblem> problems;
+        private final LineIndex lineIndex;
+
+        FileReport(VirtualFile file, List<ApiProblem> problems, LineIndex lineIndex) {
+            this.file = file;
+            this.problems = problems;
+            this.lineIndex = lineIndex;
+        }
+
+        @NotNull
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        @NotNull
+        public List<ApiProblem> getProblems() {
+            return problems;
+        }
+
+        /**
+         * The 1-based line of a problem, from the text the file was checked in.
+         */
+        public int getLine(@NotNull ApiProblem problem) {
+            return lineIndex.getLine(problem.getStart());
+        }
+    }
+
+    // what one file's read action produces
+    private static class FileRead {
+        private final ApiImportGraph.Node<VirtualFile> node;
+        private final List<ApiProblem> syntaxErrors;
+        private final LineIndex lineIndex;
+
+        FileRead(ApiImportGraph.Node<VirtualFile> node, List<ApiProblem> syntaxErrors, LineIndex lineIndex) {
+            this.node = node;
+            this.syntaxErrors = syntaxErrors;
+            this.lineIndex = lineIndex;
+        }
+    }
+
+    private final Project project;
+    private int fileCount;
+    private final Map<VirtualFile, List<ApiProblem>> syntaxErrors = new ConcurrentHashMap<>();
+    private final Map<VirtualFile, LineIndex> lineIndexes = new ConcurrentHashMap<>();
+    private final ApiImportGraph<VirtualFile> graph = new ApiImportGraph<>(file -> ReadAction.compute(() -> {
+        FileRead read = read(file, false);
+        return read != null ? read.node : null;
+    }));
+
+    public ApiBatchInspector(@NotNull Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Runs in the calling background thread and blocks until every file is checked or the indicator is cancelled.
+     *
+     * @return reports of the files that have problems, sorted by path
+     */
+    @NotNull
+    public List<FileReport> run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        indicator.setText("Collecting .api files");
+        Collection<VirtualFile> files = ReadAction.compute(() ->
+                FileTypeIndex.getFiles(ApiFileType.INSTANCE, GlobalSearchScope.projectScope(project)));
+        fileCount = files.size();
+        if (files.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int total = files.size() * 2;
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+                "Jzero Api Inspection", Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            indicator.setText("Reading .api files");
+            Map<VirtualFile, CancellablePromise<FileRead>> reads = new LinkedHashMap<>();
+            for (VirtualFile file : files) {
+                // a write action may cancel and restart the computation, so it only returns what it read;
+                // the results are published once every read has finished
+                CancellablePromise<FileRead> promise = ReadAction.nonBlocking(() -> read(file, true))
+                        .wrapProgress(indicator)
+                        .expireWith(project)
+                        .submit(executor);
+                promise.onProcessed(ignored -> indicator.setFraction((double) done.incrementAndGet() / total));
+                reads.put(file, promise);
+            }
+            awaitAll(new ArrayList<>(reads.values()));
+            reads.forEach(this::publish);
+
+            indicator.setText("Checking .api files");
+            List<FileReport> reports = Collections.synchronizedList(new ArrayList<>());
+            List<Future<?>> checks = new ArrayList<>(files.size());
+            for (VirtualFile file : files) {
+                checks.add(CompletableFuture.runAsync(() -> {
+                    if (indicator.isCanceled()) {
+                        return;
+                    }
+                    LineIndex lineIndex = lineIndexes.get(file);
+                    List<ApiProblem> problems = lineIndex != null ? check(file) : Collections.emptyList();
+                    if (!problems.isEmpty()) {
+                        reports.add(new FileReport(file, problems, lineIndex));
+                    }
+                    indicator.setFraction((double) done.incrementAndGet() / total);
+                }, executor));
+            }
+            awaitAll(checks);
+
+            reports.sort(Comparator.comparing(report -> report.getFile().getPath()));
+            return reports;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Number of .api files in the project at the last run.
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Number of files read into the import graph, imported files outside the project included.
+     */
+    public int getGraphSize() {
+        return graph.size();
+    }
+
+    private void publish(@NotNull VirtualFile file, @NotNull CancellablePromise<FileRead> promise) {
+        FileRead read;
+        try {
+            read = promise.isSucceeded() ? promise.get() : null;
+        } catch (InterruptedException | ExecutionException e) {
+            read = null;
+        }
+        if (read != null) {
+            graph.add(file, read.node);
+            syntaxErrors.put(file, read.syntaxErrors);
+            lineIndexes.put(file, read.lineIndex);
+        }
+    }
+
+    @NotNull
+    private List<ApiProblem> check(@NotNull VirtualFile file) {
+        List<ApiProblem> problems = new ArrayList<>(syntaxErrors.getOrDefault(file, Collections.emptyList()));
+        problems.addAll(graph.check(file));
+        problems.sort(Comparator.comparingInt(ApiProblem::getStart));
+        return problems;
+    }
+
+    /**
+     * Must be called inside a read action.
+     */
+    @Nullable
+    private FileRead read(@NotNull VirtualFile file, boolean collectSyntaxErrors) {
+        if (project.isDisposed() || !file.isValid()) {
+            return null;
+        }
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (!(psiFile instanceof ApiFile)) {
+            return null;
+        }
+        ApiImportGraph.Node<VirtualFile> node = ApiFileSnapshot.create(psiFile).toImportNode();
+        if (!collectSyntaxErrors) {
+            return new FileRead(node, Collections.emptyList(), null);
+        }
+        List<ApiProblem> errors = new ArrayList<>();
+        for (PsiErrorElement error : PsiTreeUtil.findChildrenOfType(psiFile, PsiErrorElement.class)) {
+            int start = error.getTextRange().getStartOffset();
+            errors.add(new ApiProblem(error.getErrorDescription(), start, Math.max(start + 1, error.getTextRange().getEndOffset())));
+        }
+        return new FileRead(node, errors, new LineIndex(psiFile.getViewProvider().getContents()));
+    }
+
+    private static void awaitAll(@NotNull List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                ProgressIndicatorUtils.awaitWithCheckCanceled(future);
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+}
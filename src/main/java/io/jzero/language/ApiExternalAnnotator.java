@@ -0,0 +1,130 @@
+package io.jzero.language;
+
+import io.jzero.core.ApiImportGraph;
+import io.jzero.core.ApiProblem;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.psi.ApiFieldTable;
+import io.jzero.psi.ApiFile;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.ExternalAnnotator;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks of an .api file: duplicate fields, structs, handlers and routes within the file, and across files
+ * unresolved types and imports. Colours are left to the cheaper {@link io.jzero.highlighting.ApiSemanticAnnotator}.
+ * <p>
+ * Only the current file is read in {@link #collectInformation}; imports are loaded and checked in
+ * {@link #doAnnotate} after the main highlighting pass, so typing latency does not depend on the
+ * number of imported files.
+ */
+public class ApiExternalAnnotator extends ExternalAnnotator<ApiExternalAnnotator.Info, List<ApiProblem>> {
+    private static final Diagnostics.Timer CHECK_TIMER = Diagnostics.timer("annotator", "cross-file checks");
+    private static final Diagnostics.Gauge IMPORT_GRAPH_SIZE = Diagnostics.gauge("annotator", "import graph files");
+
+    static class Info {
+        final Project project;
+        final VirtualFile file;
+        final ApiImportGraph.Node<VirtualFile> node;
+        // checks that need only this file, made while it is read
+        final List<ApiProblem> fileProblems;
+
+        Info(Project project, VirtualFile file, ApiImportGraph.Node<VirtualFile> node, List<ApiProblem> fileProblems) {
+            this.project = project;
+            this.file = file;
+            this.node = node;
+            this.fileProblems = fileProblems;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Info collectInformation(@NotNull PsiFile file) {
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        if (!(file instanceof ApiFile) || virtualFile == null) {
+            return null;
+        }
+        return new Info(file.getProject(), virtualFile, ApiFileSnapshot.create(file).toImportNode(), duplicateFields(file));
+    }
+
+    @NotNull
+    private static List<ApiProblem> duplicateFields(@NotNull PsiFile file) {
+        List<ApiProblem> problems = new ArrayList<>();
+        ApiFieldTable fieldTable = ApiFieldTable.of(file);
+        for (ASTNode struct : fieldTable.getStructs()) {
+            fieldTable.getDuplicateFields(struct).forEach((name, elements) -> {
+                for (PsiElement element : elements) {
+                    TextRange range = element.getTextRange();
+                    problems.add(new ApiProblem("filed [" + name + "] redeclare in this struct", range.getStartOffset(), range.getEndOffset()));
+                }
+            });
+        }
+        return problems;
+    }
+
+    @Nullable
+    @Override
+    public Info collectInformation(@NotNull PsiFile file, @NotNull Editor editor, boolean hasErrors) {
+        // duplicates and unresolved types are still worth reporting next to syntax errors
+        return collectInformation(file);
+    }
+
+    @Nullable
+    @Override
+    public List<ApiProblem> doAnnotate(Info info) {
+        if (info == null) {
+            return null;
+        }
+        ApiImportGraph<VirtualFile> graph = new ApiImportGraph<>(imported -> {
+            ProgressManager.checkCanceled();
+            return ReadAction.compute(() -> {
+                if (info.project.isDisposed() || !imported.isValid()) {
+                    return null;
+                }
+                PsiFile psiFile = PsiManager.getInstance(info.project).findFile(imported);
+                return psiFile == null ? null : ApiFileSnapshot.create(psiFile).toImportNode();
+            });
+        });
+        // the editor's version of the file, which may not be saved yet
+        graph.add(info.file, info.node);
+        List<ApiProblem> problems = new ArrayList<>(info.fileProblems);
+        long start = CHECK_TIMER.start();
+        try {
+            problems.addAll(graph.check(info.file));
+        } finally {
+            CHECK_TIMER.stop(start);
+        }
+        IMPORT_GRAPH_SIZE.set(graph.size());
+        return problems;
+    }
+
+    @Override
+    public void apply(@NotNull PsiFile file, List<ApiProblem> problems, @NotNull AnnotationHolder holder) {
+        if (problems == null) {
+            return;
+        }
+        int length = file.getTextLength();
+        for (ApiProblem problem : problems) {
+            if (problem.getEnd() > length || problem.getStart() >= problem.getEnd()) {
+                continue;
+            }
+            holder.newAnnotation(HighlightSeverity.ERROR, problem.getMessage())
+                    .range(new TextRange(problem.getStart(), problem.getEnd()))
+                    .create();
+        }
+    }
+}
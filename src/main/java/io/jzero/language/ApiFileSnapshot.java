@@ -0,0 +1,89 @@
+package io.jzero.language;
+
+import io.jzero.core.ApiImportGraph;
+import io.jzero.core.ApiSymbols;
+import io.jzero.psi.ApiSymbolTable;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable copy of everything the semantic checks need from one .api file.
+ * <p>
+ * It is taken inside a read action and holds no PSI, so the checks themselves can run without
+ * blocking writes.
+ */
+public class ApiFileSnapshot {
+
+    @Nullable
+    private final VirtualFile directory;
+    private final ApiSymbols symbols = new ApiSymbols();
+
+    private ApiFileSnapshot(@Nullable VirtualFile directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Must be called inside a read action.
+     */
+    @NotNull
+    public static ApiFileSnapshot create(@NotNull PsiFile file) {
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        ApiFileSnapshot snapshot = new ApiFileSnapshot(virtualFile != null ? virtualFile.getParent() : null);
+        ApiSymbols symbols = snapshot.symbols;
+        for (ApiSymbolTable.Symbol symbol : ApiSymbolTable.of(file).getSymbols()) {
+            TextRange range = symbol.getRange();
+            switch (symbol.getKind()) {
+                case STRUCT:
+                case ALIAS:
+                case GROUP_ALIAS:
+                    symbols.addDeclaration(declaration(ApiSymbols.Kind.STRUCT, symbol));
+                    break;
+                case HANDLER:
+                    symbols.addDeclaration(declaration(ApiSymbols.Kind.HANDLER, symbol));
+                    break;
+                case ROUTE:
+                    symbols.addDeclaration(declaration(ApiSymbols.Kind.ROUTE, symbol));
+                    break;
+                case IMPORT:
+                    symbols.addImport(new ApiSymbols.Import(symbol.getName(), symbol.getQualifier(), range.getStartOffset(), range.getEndOffset()));
+                    break;
+                case REFERENCE:
+                    symbols.addReference(new ApiSymbols.Reference(symbol.getQualifier(), symbol.getName(), range.getStartOffset(), range.getEndOffset()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return snapshot;
+    }
+
+    @NotNull
+    private static ApiSymbols.Declaration declaration(@NotNull ApiSymbols.Kind kind, @NotNull ApiSymbolTable.Symbol symbol) {
+        TextRange range = symbol.getRange();
+        return new ApiSymbols.Declaration(kind, symbol.getName(), symbol.getKey(), range.getStartOffset(), range.getEndOffset());
+    }
+
+    @Nullable
+    public VirtualFile getDirectory() {
+        return directory;
+    }
+
+    @NotNull
+    public ApiSymbols getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Resolves the imports against the file system, should be called inside a read action.
+     */
+    @NotNull
+    public ApiImportGraph.Node<VirtualFile> toImportNode() {
+        return ApiImportGraph.Node.create(symbols, path -> {
+            VirtualFile imported = directory != null ? directory.findFileByRelativePath(path) : null;
+            return imported != null && imported.getFileType() instanceof ApiFileType ? imported : null;
+        });
+    }
+}
@@ -3,7 +3,10 @@ package io.jzero.navigation;
 import com.intellij.codeInsight.daemon.LineMarkerInfo;
 import com.intellij.codeInsight.daemon.LineMarkerProvider;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -15,9 +18,11 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.ui.awt.RelativePoint;
 import com.intellij.ui.components.JBList;
 import javax.swing.DefaultListModel;
+import io.jzero.diagnostic.Diagnostics;
 import io.jzero.icon.ApiIcon;
+import io.jzero.index.MiddlewareIndex;
+import io.jzero.psi.ApiSymbolTable;
 import io.jzero.psi.nodes.HandlerValueNode;
-import io.jzero.psi.nodes.ServiceNode;
 import io.jzero.util.JzeroConfigReader;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,40 +36,27 @@ import java.util.List;
  * Based on TypeGotoDeclarationHandler pattern - shows icon in gutter for navigation
  */
 public class ApiGotoDeclarationHandler implements LineMarkerProvider {
+    private static final Diagnostics.Timer SLOW_MARKERS_TIMER = Diagnostics.timer("line markers", "ApiGotoDeclarationHandler");
+    private static final String MIDDLEWARE_KEY = "middleware";
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-        // Handler navigation to logic files
-        if (element instanceof HandlerValueNode) {
-            return createNavigationMarkerForHandler(element, (HandlerValueNode) element);
-        }
+        // Handler markers need the logic file to exist, they are added in collectSlowLineMarkers
 
-        // Check if this is the "middleware" keyword in @server annotation
-        if (isMiddlewareKeyword(element)) {
+        // Check if this is the "middleware" key of an @server annotation
+        if (findMiddlewarePair(element) != null) {
             return createNavigationMarkerForMiddlewareKeyword(element);
         }
 
         return null;
     }
 
-    private LineMarkerInfo<?> createNavigationMarkerForHandler(@NotNull PsiElement element, @NotNull HandlerValueNode handlerNode) {
+    private LineMarkerInfo<?> createNavigationMarkerForHandler(@NotNull PsiElement element) {
         String handlerName = element.getText();
-        if (handlerName == null || handlerName.trim().isEmpty()) {
-            return null;
-        }
 
         // Remove "Handler" suffix if present for display
-        String displayName = handlerName;
-        if (handlerName.endsWith("Handler")) {
-            displayName = handlerName.substring(0, handlerName.length() - "Handler".length());
-        }
-        final String finalDisplayName = displayName;
-
-        // Check if the logic file exists before showing the marker
-        if (!logicFileExists(element, handlerName)) {
-            return null;
-        }
+        final String finalDisplayName = trimHandlerSuffix(handlerName);
 
         return new LineMarkerInfo<>(
                 element,
@@ -84,11 +76,11 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Find service information
-        ServiceInfo serviceInfo = findServiceInfo(sourceElement);
+        String group = findGroup(sourceElement);
 
         // Calculate target path for logic files
         String targetPath;
-        if (serviceInfo != null && serviceInfo.groupName != null) {
+        if (group != null) {
             // Get naming style from .jzero.yaml configuration
             String namingFormat = JzeroConfigReader.getNamingStyle(sourceElement.getProject(), sourceElement.getContainingFile());
 
@@ -96,7 +88,7 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
             String formattedHandlerName = JzeroConfigReader.formatFileName(namingFormat, handlerName);
 
             // Navigate to logic files
-            targetPath = "internal/logic/" + serviceInfo.groupName + "/" + formattedHandlerName + ".go";
+            targetPath = "internal/logic/" + group + "/" + formattedHandlerName + ".go";
         } else {
             // Fallback to logic without group
             String namingFormat = JzeroConfigReader.getNamingStyle(sourceElement.getProject(), sourceElement.getContainingFile());
@@ -121,19 +113,7 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Calculate the base path by replacing "desc/api" or "desc/proto" with "internal/logic"
-        String filePath = sourceFile.getPath();
-        String basePath = filePath;
-
-        // Replace "desc/api" or "api" with "internal/logic"
-        if (filePath.contains("/desc/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/logic";
-        } else if (filePath.contains("/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/api/")) + "/internal/logic";
-        } else if (filePath.contains("/desc/proto/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/proto/")) + "/internal/logic";
-        } else if (filePath.contains("/proto/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/proto/")) + "/internal/logic";
-        }
+        String basePath = logicBasePath(sourceFile.getPath());
 
         // Combine base path with target path (which already contains the relative part)
         String fullPath = basePath + "/" + targetPath.substring("internal/logic".length());
@@ -172,58 +152,79 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         descriptor.navigate(true);
     }
 
-    private ServiceInfo findServiceInfo(@NotNull PsiElement element) {
-        // Navigate up to find the service node
-        PsiElement current = element.getParent();
-        while (current != null && !(current instanceof ServiceNode)) {
-            current = current.getParent();
-        }
+    @Nullable
+    private String findGroup(@NotNull PsiElement element) {
+        ApiSymbolTable.Symbol handler = ApiSymbolTable.of(element.getContainingFile())
+                .findAt(ApiSymbolTable.Kind.HANDLER, element.getTextRange().getStartOffset());
+        return handler != null ? handler.getGroup() : null;
+    }
 
-        if (current == null) {
-            return null;
+    @NotNull
+    private static String logicBasePath(@NotNull String filePath) {
+        // Replace "desc/api" or "api" with "internal/logic"
+        if (filePath.contains("/desc/api/")) {
+            return filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/logic";
+        } else if (filePath.contains("/api/")) {
+            return filePath.substring(0, filePath.indexOf("/api/")) + "/internal/logic";
+        } else if (filePath.contains("/desc/proto/")) {
+            return filePath.substring(0, filePath.indexOf("/desc/proto/")) + "/internal/logic";
+        } else if (filePath.contains("/proto/")) {
+            return filePath.substring(0, filePath.indexOf("/proto/")) + "/internal/logic";
         }
+        return filePath;
+    }
 
-        ServiceNode serviceNode = (ServiceNode) current;
-        return extractServiceInfo(serviceNode);
+    @NotNull
+    private static String trimHandlerSuffix(@NotNull String handlerName) {
+        if (handlerName.endsWith("Handler")) {
+            return handlerName.substring(0, handlerName.length() - "Handler".length());
+        }
+        return handlerName;
     }
 
-    private ServiceInfo extractServiceInfo(@NotNull ServiceNode serviceNode) {
-        // Look for @server annotation before the service
-        PsiElement current = serviceNode.getPrevSibling();
-        while (current != null) {
-            String text = current.getText();
-            if (text != null && text.contains("@server")) {
-                return parseServerAnnotation(text);
-            }
-            current = current.getPrevSibling();
+    /**
+     * Adds handler markers whose logic file exists. The naming style is read once and every logic folder
+     * is listed once for the whole batch.
+     */
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        long start = SLOW_MARKERS_TIMER.start();
+        try {
+            collectMarkers(elements, result);
+        } finally {
+            SLOW_MARKERS_TIMER.stop(start);
         }
-        return null;
     }
 
-    private ServiceInfo parseServerAnnotation(@NotNull String annotationText) {
-        ServiceInfo info = new ServiceInfo();
-
-        // Parse @server configuration values
-        String[] lines = annotationText.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-
-            if (line.contains("group:")) {
-                String groupValue = line.substring(line.indexOf("group:") + 6).trim();
-                // Remove quotes if present
-                if (groupValue.startsWith("\"") && groupValue.endsWith("\"")) {
-                    groupValue = groupValue.substring(1, groupValue.length() - 1);
-                }
-                info.groupName = groupValue;
+    private void collectMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        List<PsiElement> handlers = new ArrayList<>();
+        for (PsiElement element : elements) {
+            if (element instanceof HandlerValueNode && !element.getText().trim().isEmpty()) {
+                handlers.add(element);
             }
         }
+        if (handlers.isEmpty()) {
+            return;
+        }
 
-        return info.groupName != null ? info : null;
-    }
-
-    @Override
-    public void collectSlowLineMarkers(@NotNull java.util.List<? extends PsiElement> elements, @NotNull java.util.Collection<? super LineMarkerInfo<?>> result) {
-        // Not needed for this implementation
+        PsiFile file = handlers.get(0).getContainingFile();
+        VirtualFile sourceFile = file.getVirtualFile();
+        if (sourceFile == null) {
+            return;
+        }
+        String basePath = logicBasePath(sourceFile.getPath());
+        String namingFormat = JzeroConfigReader.getNamingStyle(file.getProject(), file);
+        FolderListing folders = new FolderListing(sourceFile.getFileSystem());
+
+        for (PsiElement handler : handlers) {
+            ProgressManager.checkCanceled();
+            String group = findGroup(handler);
+            String folderPath = group != null ? basePath + "/" + group : basePath;
+            String fileName = JzeroConfigReader.formatFileName(namingFormat, trimHandlerSuffix(handler.getText())) + ".go";
+            if (folders.find(folderPath, fileName) != null) {
+                result.add(createNavigationMarkerForHandler(handler));
+            }
+        }
     }
 
     private LineMarkerInfo<?> createNavigationMarkerForMiddlewareKeyword(@NotNull PsiElement element) {
@@ -239,16 +240,14 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
     }
 
     private void showMiddlewarePopup(@NotNull PsiElement sourceElement) {
-        // Extract middleware names from the annotation
-        List<String> middlewareNames = extractMiddlewareNames(sourceElement);
+        // Middleware names of the annotation, from the file's symbol table
+        ApiSymbolTable.ServerPair pair = findMiddlewarePair(sourceElement);
+        List<String> middlewareNames = pair != null ? pair.getValues() : new ArrayList<>();
 
         if (middlewareNames.isEmpty()) {
-            System.out.println("No middleware names found");
             return;
         }
 
-        System.out.println("Found middleware names: " + middlewareNames);
-
         // Create a list model for the popup
         DefaultListModel<String> listModel = new DefaultListModel<>();
         for (String name : middlewareNames) {
@@ -296,61 +295,40 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         }
     }
 
-    private List<String> extractMiddlewareNames(@NotNull PsiElement element) {
-        List<String> names = new ArrayList<>();
-
-        // Find the @server annotation by looking at the element containing file
+    /**
+     * The @server pair whose key is the given leaf, if the key is "middleware".
+     */
+    @Nullable
+    private static ApiSymbolTable.ServerPair findMiddlewarePair(@NotNull PsiElement element) {
+        if (element.getFirstChild() != null || element.getTextLength() != MIDDLEWARE_KEY.length()) {
+            return null;
+        }
         PsiFile file = element.getContainingFile();
         if (file == null) {
-            return names;
-        }
-
-        String fileText = file.getText();
-        int elementOffset = element.getTextRange().getStartOffset();
-
-        // Search backwards from the middleware keyword to find @server
-        int serverStart = fileText.lastIndexOf("@server", elementOffset);
-        if (serverStart == -1) {
-            return names;
+            return null;
         }
+        ApiSymbolTable.ServerPair pair = ApiSymbolTable.of(file).findServerPair(element.getTextRange().getStartOffset());
+        return pair != null && MIDDLEWARE_KEY.equals(pair.getKey()) ? pair : null;
+    }
 
-        // Find the end of the annotation block (usually before 'service' keyword)
-        int annotationEnd = fileText.indexOf("service", serverStart);
-        if (annotationEnd == -1) {
-            annotationEnd = fileText.length();
+    private void navigateToMiddlewareFile(@NotNull PsiElement sourceElement, @NotNull String middlewareName) {
+        Project project = sourceElement.getProject();
+        VirtualFile sourceFile = sourceElement.getContainingFile().getVirtualFile();
+        if (sourceFile == null) {
+            return;
         }
 
-        // Extract the annotation block
-        String annotationBlock = fileText.substring(serverStart, annotationEnd);
-
-        // Parse middleware values from the annotation
-        String[] lines = annotationBlock.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("middleware:")) {
-                // Get the value after "middleware:"
-                String value = line.substring("middleware:".length()).trim();
-                // Remove quotes if present
-                if (value.startsWith("\"") && value.endsWith("\"")) {
-                    value = value.substring(1, value.length() - 1);
-                }
-                // Split by comma and add to list
-                String[] parts = value.split(",");
-                for (String part : parts) {
-                    String name = part.trim();
-                    if (!name.isEmpty()) {
-                        names.add(name);
-                    }
-                }
+        // Look the middleware up in the index of internal/middleware declarations
+        if (!DumbService.isDumb(project)) {
+            Pair<VirtualFile, Integer> location = MiddlewareIndex.find(project, middlewareName, middlewareBasePath(sourceFile.getPath()));
+            if (location != null) {
+                openFileAndNavigate(project, location.first, location.second);
+                return;
             }
         }
 
-        return names;
-    }
-
-    private void navigateToMiddlewareFile(@NotNull PsiElement sourceElement, @NotNull String middlewareName) {
-        // Get naming style from .jzero.yaml configuration
-        String namingFormat = JzeroConfigReader.getNamingStyle(sourceElement.getProject(), sourceElement.getContainingFile());
+        // Fallback to the file named after the middleware, using the naming style from .jzero.yaml
+        String namingFormat = JzeroConfigReader.getNamingStyle(project, sourceElement.getContainingFile());
 
         // Format the middleware name according to jzero configuration
         String formattedMiddlewareName = JzeroConfigReader.formatFileName(namingFormat, middlewareName);
@@ -362,7 +340,7 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         PsiFile targetFile = findMiddlewareFile(sourceElement, targetPath);
         if (targetFile != null) {
             // Navigate to the middleware function
-            navigateToMiddlewareFunction(sourceElement.getProject(), targetFile, middlewareName);
+            navigateToMiddlewareFunction(project, targetFile, middlewareName);
         }
     }
 
@@ -377,14 +355,7 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Calculate the base path by replacing "desc/api" or "api" with "internal/middleware"
-        String filePath = sourceFile.getPath();
-        String basePath = filePath;
-
-        if (filePath.contains("/desc/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/middleware";
-        } else if (filePath.contains("/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/api/")) + "/internal/middleware";
-        }
+        String basePath = middlewareBasePath(sourceFile.getPath());
 
         // Combine base path with target path (which already contains the relative part)
         String fullPath = basePath + "/" + targetPath.substring("internal/middleware".length());
@@ -398,6 +369,16 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         return null;
     }
 
+    @NotNull
+    private static String middlewareBasePath(@NotNull String filePath) {
+        if (filePath.contains("/desc/api/")) {
+            return filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/middleware";
+        } else if (filePath.contains("/api/")) {
+            return filePath.substring(0, filePath.indexOf("/api/")) + "/internal/middleware";
+        }
+        return filePath;
+    }
+
     private void navigateToMiddlewareFunction(@NotNull Project project, @NotNull PsiFile goFile, @NotNull String middlewareName) {
         String content = goFile.getText();
 
@@ -419,78 +400,4 @@ public class ApiGotoDeclarationHandler implements LineMarkerProvider {
         // Fallback to file beginning if function not found
         openFileAndNavigate(project, goFile.getVirtualFile(), 0);
     }
-
-    private boolean isMiddlewareKeyword(@NotNull PsiElement element) {
-        String text = element.getText();
-        System.out.println("Checking element: '" + text + "'");
-
-        // Only match the exact "middleware" keyword (the key, not the values)
-        if (text == null || !text.equals("middleware")) {
-            return false;
-        }
-
-        System.out.println("Element text is 'middleware', checking siblings...");
-
-        // Check if the next sibling is a colon - this indicates it's the key
-        PsiElement nextSibling = element.getNextSibling();
-        if (nextSibling != null) {
-            String nextText = nextSibling.getText();
-            System.out.println("Next sibling: '" + nextText + "'");
-            // The key should be followed by colon (possibly with whitespace)
-            if (nextText.trim().startsWith(":")) {
-                System.out.println("Found colon after middleware, checking @server...");
-                // Navigate up to check if this is inside a @server annotation
-                PsiElement current = element.getParent();
-                while (current != null) {
-                    String parentText = current.getText();
-                    if (parentText != null && parentText.contains("@server")) {
-                        System.out.println("Found @server annotation, returning true");
-                        return true;
-                    }
-                    // Don't go too far up - stop at service level
-                    if (current instanceof ServiceNode) {
-                        break;
-                    }
-                    current = current.getParent();
-                }
-            }
-        }
-
-        System.out.println("Not a middleware keyword");
-        return false;
-    }
-
-    private boolean logicFileExists(@NotNull PsiElement element, @NotNull String handlerName) {
-        // Remove "Handler" suffix if present
-        if (handlerName.endsWith("Handler")) {
-            handlerName = handlerName.substring(0, handlerName.length() - "Handler".length());
-        }
-
-        // Find service information
-        ServiceInfo serviceInfo = findServiceInfo(element);
-
-        // Calculate target path for logic files
-        String targetPath;
-        if (serviceInfo != null && serviceInfo.groupName != null) {
-            // Get naming style from .jzero.yaml configuration
-            String namingFormat = JzeroConfigReader.getNamingStyle(element.getProject(), element.getContainingFile());
-
-            // Format the handler name according to jzero configuration
-            String formattedHandlerName = JzeroConfigReader.formatFileName(namingFormat, handlerName);
-
-            // Navigate to logic files
-            targetPath = "internal/logic/" + serviceInfo.groupName + "/" + formattedHandlerName + ".go";
-        } else {
-            // Fallback to logic without group
-            String namingFormat = JzeroConfigReader.getNamingStyle(element.getProject(), element.getContainingFile());
-            String formattedHandlerName = JzeroConfigReader.formatFileName(namingFormat, handlerName);
-            targetPath = "internal/logic/" + formattedHandlerName + ".go";
-        }
-
-        return findLogicFile(element.getProject(), targetPath, handlerName, element) != null;
-    }
-
-    private static class ServiceInfo {
-        String groupName;
-    }
 }
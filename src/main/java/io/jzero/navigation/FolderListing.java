@@ -0,0 +1,44 @@
+package io.jzero.navigation;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileSystem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Children of the target folders of one batch of gutter markers, each folder listed once on first use.
+ * <p>
+ * Line marker providers check whether the generated go file of every element exists; with a listing
+ * that costs one directory read per folder instead of one path lookup per element.
+ */
+class FolderListing {
+    private final VirtualFileSystem fileSystem;
+    // folder path -> file name -> file
+    private final Map<String, Map<String, VirtualFile>> folders = new HashMap<>();
+
+    FolderListing(@NotNull VirtualFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    @Nullable
+    VirtualFile find(@NotNull String folderPath, @NotNull String fileName) {
+        return folders.computeIfAbsent(folderPath, this::list).get(fileName);
+    }
+
+    @NotNull
+    private Map<String, VirtualFile> list(@NotNull String folderPath) {
+        VirtualFile folder = fileSystem.findFileByPath(folderPath);
+        if (folder == null || !folder.isDirectory()) {
+            return Collections.emptyMap();
+        }
+        Map<String, VirtualFile> children = new HashMap<>();
+        for (VirtualFile child : folder.getChildren()) {
+            children.put(child.getName(), child);
+        }
+        return children;
+    }
+}
@@ -11,11 +11,16 @@ import com.intellij.execution.executors.DefaultRunExecutor;
 import com.intellij.execution.runners.ExecutionEnvironmentBuilder;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.PsiTreeUtil;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.index.SqlTableIndex;
 import io.jzero.runconfig.JzeroGenConfigurationFactory;
 import io.jzero.runconfig.JzeroGenConfigurationType;
 import io.jzero.runconfig.JzeroGenRunConfiguration;
@@ -25,6 +30,8 @@ import org.jetbrains.annotations.Nullable;
 import java.awt.event.MouseEvent;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * LineMarker provider for jzero gen execution buttons
@@ -35,61 +42,148 @@ import java.util.List;
  * - For .sql: Shows button on first line to execute "jzero gen --desc" (only in desc/sql)
  */
 public class JzeroGenLineMarkerProvider implements LineMarkerProvider {
+    private static final Key<GenFileInfo> INFO_KEY = Key.create("jzero.gen.file.info");
+    private static final Diagnostics.Timer MARKERS_TIMER = Diagnostics.timer("line markers", "JzeroGenLineMarkerProvider");
+    private static final Diagnostics.CacheStats GEN_FILE_CACHE = Diagnostics.cache("caches", "jzero gen file kind");
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
+        // Markers only go on leaves
+        if (element.getFirstChild() != null) {
+            return null;
+        }
+        long start = MARKERS_TIMER.start();
+        try {
+            return getLeafMarker(element);
+        } finally {
+            MARKERS_TIMER.stop(start);
+        }
+    }
+
+    @Nullable
+    private LineMarkerInfo<?> getLeafMarker(@NotNull PsiElement element) {
         PsiFile containingFile = element.getContainingFile();
         if (containingFile == null) {
             return null;
         }
 
-        VirtualFile virtualFile = containingFile.getVirtualFile();
+        GenFileInfo info = getGenFileInfo(containingFile);
+        switch (info.kind) {
+            case CONFIG:
+                return createYamlLineMarker(element, containingFile.getProject(), info.file);
+            case DESC:
+                // Only the first non-whitespace leaf of a desc file gets the marker
+                if (element.getTextRange().getStartOffset() != info.anchorOffset) {
+                    return null;
+                }
+                return createApiLineMarker(element, containingFile.getProject(), info.file);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * What the file is to jzero gen and where its marker goes, computed again only when the file changes.
+     */
+    @NotNull
+    private static GenFileInfo getGenFileInfo(@NotNull PsiFile file) {
+        long stamp = file.getModificationStamp();
+        GenFileInfo info = file.getUserData(INFO_KEY);
+        if (info == null || info.stamp != stamp) {
+            GEN_FILE_CACHE.miss();
+            info = computeGenFileInfo(file, stamp);
+            file.putUserData(INFO_KEY, info);
+        } else {
+            GEN_FILE_CACHE.hit();
+        }
+        return info;
+    }
+
+    @NotNull
+    private static GenFileInfo computeGenFileInfo(@NotNull PsiFile file, long stamp) {
+        VirtualFile virtualFile = file.getVirtualFile();
         if (virtualFile == null) {
-            return null;
+            return new GenFileInfo(stamp, GenFileKind.NONE, null, -1);
+        }
+
+        GenFileKind kind = classify(virtualFile);
+        if (kind != GenFileKind.DESC) {
+            return new GenFileInfo(stamp, kind, virtualFile, -1);
         }
 
-        Project project = containingFile.getProject();
+        // Offset of the first leaf that is not whitespace
+        PsiElement leaf = PsiTreeUtil.firstChild(file);
+        while (leaf != null && (leaf instanceof PsiWhiteSpace || leaf.getTextLength() == 0
+                || leaf.getText().trim().isEmpty())) {
+            leaf = PsiTreeUtil.nextLeaf(leaf);
+        }
+        if (leaf == null) {
+            return new GenFileInfo(stamp, GenFileKind.NONE, virtualFile, -1);
+        }
+        return new GenFileInfo(stamp, kind, virtualFile, leaf.getTextRange().getStartOffset());
+    }
+
+    @NotNull
+    private static GenFileKind classify(@NotNull VirtualFile virtualFile) {
         String fileName = virtualFile.getName();
+        String filePath = virtualFile.getPath();
 
-        // Handle .jzero.yaml files (existing functionality)
+        // .jzero.yaml files
         if (".jzero.yaml".equals(fileName)) {
-            return createYamlLineMarker(element, project, virtualFile);
+            return GenFileKind.CONFIG;
         }
 
-        // Handle .api files (existing functionality)
-        if (fileName.endsWith(".api")) {
-            return createApiLineMarker(element, project, virtualFile);
+        // .api files under desc
+        if (fileName.endsWith(".api") && filePath.contains("/desc/")) {
+            return GenFileKind.DESC;
         }
 
-        // Handle .proto files (only in desc/proto, exclude third_party)
-        if (fileName.endsWith(".proto")) {
-            String filePath = virtualFile.getPath();
-            if (filePath.contains("/desc/proto/") && !filePath.contains("/desc/proto/third_party/")) {
-                return createApiLineMarker(element, project, virtualFile);
-            }
+        // .proto files only in desc/proto, excluding third_party
+        if (fileName.endsWith(".proto") && filePath.contains("/desc/proto/") && !filePath.contains("/desc/proto/third_party/")) {
+            return GenFileKind.DESC;
         }
 
-        // Handle .sql files (only in desc/sql directory)
-        if (fileName.endsWith(".sql")) {
-            String filePath = virtualFile.getPath();
-            if (filePath.contains("/desc/sql/")) {
-                return createApiLineMarker(element, project, virtualFile);
-            }
+        // .sql files only in desc/sql directory
+        if (fileName.endsWith(".sql") && filePath.contains("/desc/sql/")) {
+            return GenFileKind.DESC;
         }
 
-        return null;
+        return GenFileKind.NONE;
+    }
+
+    private enum GenFileKind {
+        NONE,
+        // .jzero.yaml: markers on the gen and zrpcclient keys
+        CONFIG,
+        // .api/.proto/.sql under desc: one marker on the first leaf
+        DESC
+    }
+
+    private static class GenFileInfo {
+        final long stamp;
+        final GenFileKind kind;
+        final VirtualFile file;
+        final int anchorOffset;
+
+        GenFileInfo(long stamp, @NotNull GenFileKind kind, @Nullable VirtualFile file, int anchorOffset) {
+            this.stamp = stamp;
+            this.kind = kind;
+            this.file = file;
+            this.anchorOffset = anchorOffset;
+        }
     }
 
     @Nullable
     private LineMarkerInfo<?> createYamlLineMarker(@NotNull PsiElement element,
                                                   @NotNull Project project,
                                                   @NotNull VirtualFile virtualFile) {
-        // Check if the element contains the "gen" or "zrpcclient" keyword
-        String elementText = element.getText();
-        if (elementText == null) {
+        // Check if the element is the "gen" or "zrpcclient" keyword, by length before copying its text
+        int length = element.getTextLength();
+        if (length < "gen".length() || length > "zrpcclient".length() + 2) {
             return null;
         }
+        String elementText = element.getText();
 
         String trimmedText = elementText.trim();
         String command = null;
@@ -128,27 +222,6 @@ public class JzeroGenLineMarkerProvider implements LineMarkerProvider {
     private LineMarkerInfo<?> createApiLineMarker(@NotNull PsiElement element,
                                                  @NotNull Project project,
                                                  @NotNull VirtualFile virtualFile) {
-        PsiFile containingFile = element.getContainingFile();
-
-        // Only show marker on the very first non-whitespace element of the API file
-        PsiElement firstElement = containingFile.getFirstChild();
-        while (firstElement != null &&
-               (firstElement instanceof PsiWhiteSpace ||
-                firstElement.getText().trim().isEmpty())) {
-            firstElement = firstElement.getNextSibling();
-        }
-
-        // Only show the marker if this element is the first non-whitespace element
-        if (firstElement == null || element != firstElement) {
-            return null;
-        }
-
-        // Only show button if the file path contains /desc/ pattern
-        String filePath = virtualFile.getPath();
-        if (!filePath.contains("/desc/")) {
-            return null;
-        }
-
         // Don't calculate the command here - do it dynamically when clicked
         // to ensure we get the current file path after potential renames
 
@@ -156,7 +229,7 @@ public class JzeroGenLineMarkerProvider implements LineMarkerProvider {
                 element,
                 element.getTextRange(),
                 AllIcons.Actions.Execute,
-                psiElement -> "Execute jzero gen --desc",
+                psiElement -> genDescTooltip(project, virtualFile),
                 new GutterIconNavigationHandler<PsiElement>() {
                     @Override
                     public void navigate(MouseEvent e, PsiElement elt) {
@@ -167,6 +240,18 @@ public class JzeroGenLineMarkerProvider implements LineMarkerProvider {
         );
     }
 
+    @NotNull
+    private String genDescTooltip(@NotNull Project project, @NotNull VirtualFile virtualFile) {
+        // For sql files, list the tables the command will generate models for
+        if (virtualFile.getName().endsWith(".sql") && !DumbService.isDumb(project) && virtualFile.isValid()) {
+            Set<String> tables = SqlTableIndex.getTables(project, virtualFile).keySet();
+            if (!tables.isEmpty()) {
+                return "Execute jzero gen --desc (tables: " + String.join(", ", new TreeSet<>(tables)) + ")";
+            }
+        }
+        return "Execute jzero gen --desc";
+    }
+
     private void executeApiGenCommand(@NotNull Project project, @NotNull PsiElement element) {
         PsiFile containingFile = element.getContainingFile();
         if (containingFile == null) {
@@ -7,20 +7,29 @@ import com.intellij.codeInsight.daemon.LineMarkerInfo;
 import com.intellij.codeInsight.daemon.LineMarkerProvider;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.openapi.vfs.LocalFileSystem;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.diagnostic.Log;
 import io.jzero.icon.ApiIcon;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * LineMarker provider for logic file navigation to api/proto files
@@ -28,39 +37,17 @@ import java.util.List;
  * Uses metadata.json to find the corresponding api/proto file and line number
  */
 public class LogicGotoDeclarationHandler implements LineMarkerProvider {
+    private static final Diagnostics.Timer SLOW_MARKERS_TIMER = Diagnostics.timer("line markers", "LogicGotoDeclarationHandler");
+    private static final Log LOG = Log.of(LogicGotoDeclarationHandler.class);
+    private static final Diagnostics.CacheStats METADATA_CACHE = Diagnostics.cache("caches", "logic file metadata");
+    private static final Key<LogicFileInfo> INFO_KEY = Key.create("jzero.logic.file.info");
+    private static final Pattern NEW_FUNCTION = Pattern.compile("\\bfunc\\s+(New[a-zA-Z0-9_]*)\\s*\\(");
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-        // Check if this is a Go file
-        PsiFile containingFile = element.getContainingFile();
-        if (containingFile == null || !containingFile.getName().endsWith(".go")) {
-            return null;
-        }
-
-        // Check if the file is in internal/logic directory
-        VirtualFile virtualFile = containingFile.getVirtualFile();
-        if (virtualFile == null) {
-            return null;
-        }
-
-        String filePath = virtualFile.getPath();
-        if (!filePath.contains("/internal/logic/") && !filePath.contains("\\internal\\logic\\")) {
-            return null;
-        }
-
-        // Check if this element is a function declaration starting with "New"
-        if (!isNewFunctionDeclaration(element)) {
-            return null;
-        }
-
-        // Check if metadata.json exists and has matching entry for this logic file
-        if (!hasMetadataForLogicFile(filePath)) {
-            return null;
-        }
-
-        // Found a "func NewXxx" pattern with valid metadata, show navigation icon
-        return createNavigationMarker(element);
+        // Markers need metadata.json to be read, they are added in collectSlowLineMarkers from a cached per-file verdict
+        return null;
     }
 
     private LineMarkerInfo<?> createNavigationMarker(@NotNull PsiElement element) {
@@ -81,15 +68,8 @@ public class LogicGotoDeclarationHandler implements LineMarkerProvider {
             return;
         }
 
-        VirtualFile sourceFile = containingFile.getVirtualFile();
-        if (sourceFile == null) {
-            return;
-        }
-
-        String filePath = sourceFile.getPath();
-
         // Find all metadata entries for this logic file
-        List<LogicMetadata> metadataList = findAllMetadataForLogicFile(filePath);
+        List<LogicMetadata> metadataList = getLogicFileInfo(containingFile).metadata;
 
         if (metadataList.isEmpty()) {
             return;
@@ -107,28 +87,15 @@ public class LogicGotoDeclarationHandler implements LineMarkerProvider {
     }
 
     @NotNull
-    private List<LogicMetadata> findAllMetadataForLogicFile(@NotNull String logicFilePath) {
+    private List<LogicMetadata> findAllMetadataForLogicFile(@NotNull VirtualFile metadataFile, @NotNull String logicFilePath) {
         List<LogicMetadata> results = new ArrayList<>();
 
         try {
-            String basePath = extractBasePath(logicFilePath);
-            if (basePath == null) {
-                return results;
-            }
-
-            String homeDir = System.getProperty("user.home");
-            String metadataPath = homeDir + "/.jzero/desc-metadata" + basePath + "/metadata.json";
-
-            File metadataFile = new File(metadataPath);
-            if (!metadataFile.exists()) {
-                return results;
-            }
-
-            String content = new String(Files.readAllBytes(Paths.get(metadataPath)));
+            String content = VfsUtilCore.loadText(metadataFile);
             return parseAllMetadataForFile(content, logicFilePath);
 
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.warn("cannot read the metadata of {0}", logicFilePath, e);
         }
 
         return results;
@@ -212,7 +179,7 @@ public class LogicGotoDeclarationHandler implements LineMarkerProvider {
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.warn("cannot parse metadata for {0}", logicFilePath, e);
         }
 
         return results;
@@ -254,65 +221,141 @@ public class LogicGotoDeclarationHandler implements LineMarkerProvider {
         descriptor.navigate(true);
     }
 
-    @Override
-    public void collectSlowLineMarkers(@NotNull java.util.List<? extends PsiElement> elements,
-                                       @NotNull java.util.Collection<? super LineMarkerInfo<?>> result) {
-        // Not needed for this implementation
-    }
-
     /**
-     * Check if metadata.json exists and contains entry for this logic file
+     * Adds markers to the "func NewXxx" declarations of a logic file that has metadata entries, at the
+     * offsets kept in its cached {@link LogicFileInfo}.
      */
-    private boolean hasMetadataForLogicFile(@NotNull String logicFilePath) {
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        long start = SLOW_MARKERS_TIMER.start();
         try {
-            String basePath = extractBasePath(logicFilePath);
-            if (basePath == null) {
-                return false;
-            }
+            collectMarkers(elements, result);
+        } finally {
+            SLOW_MARKERS_TIMER.stop(start);
+        }
+    }
 
-            String homeDir = System.getProperty("user.home");
-            String metadataPath = homeDir + "/.jzero/desc-metadata" + basePath + "/metadata.json";
+    private void collectMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        PsiFile containingFile = elements.get(0).getContainingFile();
+        if (containingFile == null) {
+            return;
+        }
+        LogicFileInfo info = getLogicFileInfo(containingFile);
+        if (info.functionOffsets.isEmpty()) {
+            return;
+        }
 
-            File metadataFile = new File(metadataPath);
-            if (!metadataFile.exists()) {
-                return false;
+        for (PsiElement element : elements) {
+            if (element.getFirstChild() == null && info.functionOffsets.contains(element.getTextRange().getStartOffset())) {
+                result.add(createNavigationMarker(element));
             }
+        }
+    }
 
-            // Parse and check if there's a matching entry
-            String content = new String(Files.readAllBytes(Paths.get(metadataPath)));
-            List<LogicMetadata> metadataList = parseAllMetadataForFile(content, logicFilePath);
+    /**
+     * The verdict for a file, computed again only when the file or its metadata.json has changed. Both are
+     * checked through the VFS, which sees changes made outside the IDE at its next refresh.
+     */
+    @NotNull
+    private LogicFileInfo getLogicFileInfo(@NotNull PsiFile file) {
+        long stamp = file.getModificationStamp();
+        LogicFileInfo info = file.getUserData(INFO_KEY);
+        if (info != null && info.isUpToDate(stamp)) {
+            METADATA_CACHE.hit();
+            return info;
+        }
+        METADATA_CACHE.miss();
+        info = computeLogicFileInfo(file, stamp);
+        file.putUserData(INFO_KEY, info);
+        return info;
+    }
 
-            return !metadataList.isEmpty();
+    @NotNull
+    private LogicFileInfo computeLogicFileInfo(@NotNull PsiFile file, long stamp) {
+        // Check if this is a Go file in internal/logic directory
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null || !file.getName().endsWith(".go")) {
+            return LogicFileInfo.notLogic(stamp);
+        }
+        String filePath = virtualFile.getPath();
+        String basePath = extractBasePath(filePath);
+        if (basePath == null) {
+            return LogicFileInfo.notLogic(stamp);
+        }
 
-        } catch (IOException e) {
-            return false;
+        // Check if metadata.json exists and has matching entries for this logic file
+        VirtualFile metadataFile = LocalFileSystem.getInstance().findFileByIoFile(metadataFile(basePath));
+        if (metadataFile == null) {
+            // until it is created, which changes the structure of the VFS
+            long structureStamp = VirtualFileManager.getInstance().getStructureModificationCount();
+            return new LogicFileInfo(stamp, true, null, structureStamp, Collections.emptyList(), Collections.emptySet());
+        }
+        long metadataStamp = metadataFile.getModificationStamp();
+        List<LogicMetadata> metadata = findAllMetadataForLogicFile(metadataFile, filePath);
+        if (metadata.isEmpty()) {
+            return new LogicFileInfo(stamp, true, metadataFile, metadataStamp, metadata, Collections.emptySet());
         }
+
+        // Offsets of the names in "func NewXxx(" declarations
+        Set<Integer> functionOffsets = new HashSet<>();
+        Matcher matcher = NEW_FUNCTION.matcher(file.getViewProvider().getContents());
+        while (matcher.find()) {
+            functionOffsets.add(matcher.start(1));
+        }
+        return new LogicFileInfo(stamp, true, metadataFile, metadataStamp, metadata, functionOffsets);
+    }
+
+    @NotNull
+    private static File metadataFile(@NotNull String basePath) {
+        String homeDir = System.getProperty("user.home");
+        return new File(homeDir + "/.jzero/desc-metadata" + basePath + "/metadata.json");
     }
 
     /**
-     * Check if the given element is a function declaration starting with "New"
-     * Matches patterns like: func NewCreateUser(...) or func NewGetUser(...)
+     * What a Go file needs for markers: its metadata entries and the offsets of its "func NewXxx" names.
+     * Files outside internal/logic, or without metadata entries, have none.
      */
-    private boolean isNewFunctionDeclaration(@NotNull PsiElement element) {
-        String elementText = element.getText();
-
-        // Check if current element text looks like a function name
-        if (elementText == null || !elementText.matches("[a-zA-Z][a-zA-Z0-9_]*")) {
-            return false;
+    private static class LogicFileInfo {
+        final long stamp;
+        final boolean logicFile;
+        // null when the file is not a logic file or its metadata.json does not exist
+        @Nullable
+        final VirtualFile metadataFile;
+        // modification stamp of metadataFile, or the VFS structure modification count when it does not exist
+        final long metadataStamp;
+        final List<LogicMetadata> metadata;
+        final Set<Integer> functionOffsets;
+
+        LogicFileInfo(long stamp, boolean logicFile, @Nullable VirtualFile metadataFile, long metadataStamp,
+                      @NotNull List<LogicMetadata> metadata, @NotNull Set<Integer> functionOffsets) {
+            this.stamp = stamp;
+            this.logicFile = logicFile;
+            this.metadataFile = metadataFile;
+            this.metadataStamp = metadataStamp;
+            this.metadata = metadata;
+            this.functionOffsets = functionOffsets;
         }
 
-        // Check if this function name starts with "New"
-        if (!elementText.startsWith("New")) {
-            return false;
+        @NotNull
+        static LogicFileInfo notLogic(long stamp) {
+            return new LogicFileInfo(stamp, false, null, 0, Collections.emptyList(), Collections.emptySet());
         }
 
-        // Check if the previous sibling is "func" keyword
-        PsiElement prev = element.getPrevSibling();
-        while (prev != null && (prev.getText() == null || prev.getText().trim().isEmpty())) {
-            prev = prev.getPrevSibling();
+        boolean isUpToDate(long stamp) {
+            if (this.stamp != stamp) {
+                return false;
+            }
+            if (!logicFile) {
+                return true;
+            }
+            if (metadataFile == null) {
+                return metadataStamp == VirtualFileManager.getInstance().getStructureModificationCount();
+            }
+            return metadataFile.isValid() && metadataFile.getModificationStamp() == metadataStamp;
         }
-
-        return prev != null && "func".equals(prev.getText().trim());
     }
 
     private static class LogicMetadata {
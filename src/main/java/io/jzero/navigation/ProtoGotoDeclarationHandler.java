@@ -3,6 +3,7 @@ package io.jzero.navigation;
 import com.intellij.codeInsight.daemon.LineMarkerInfo;
 import com.intellij.codeInsight.daemon.LineMarkerProvider;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
@@ -10,12 +11,15 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import io.jzero.diagnostic.Diagnostics;
 import io.jzero.icon.ApiIcon;
+import io.jzero.proto.ProtoOutline;
 import io.jzero.util.JzeroConfigReader;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * LineMarker provider for proto rpc method navigation to logic files
@@ -23,51 +27,36 @@ import java.util.Collection;
  * Based on ApiGotoDeclarationHandler pattern - shows icon in gutter for navigation
  */
 public class ProtoGotoDeclarationHandler implements LineMarkerProvider {
+    private static final Diagnostics.Timer SLOW_MARKERS_TIMER = Diagnostics.timer("line markers", "ProtoGotoDeclarationHandler");
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-        // Check if this is a proto file
-        PsiFile containingFile = element.getContainingFile();
-        if (containingFile == null || !containingFile.getName().endsWith(".proto")) {
-            return null;
-        }
-
-        // Try to find rpc method information
-        RpcMethodInfo rpcInfo = findRpcMethodInfo(element);
-        if (rpcInfo == null || rpcInfo.rpcName == null || rpcInfo.serviceName == null) {
-            return null;
-        }
-
-        // Check if the logic file exists before showing the marker
-        if (!logicFileExists(element, rpcInfo)) {
-            return null;
-        }
-
-        return createNavigationMarkerForRpc(element, rpcInfo);
+        // Rpc markers need the logic file to exist, they are added in collectSlowLineMarkers
+        return null;
     }
 
-    private LineMarkerInfo<?> createNavigationMarkerForRpc(@NotNull PsiElement element, @NotNull RpcMethodInfo rpcInfo) {
+    private LineMarkerInfo<?> createNavigationMarkerForRpc(@NotNull PsiElement element, @NotNull String serviceName, @NotNull String rpcName) {
         return new LineMarkerInfo<>(
                 element,
                 element.getTextRange(),
                 ApiIcon.FILE,
-                e -> "Navigate to Logic: " + rpcInfo.rpcName,
-                (e, elt) -> navigateToLogicFile(elt, rpcInfo),
+                e -> "Navigate to Logic: " + rpcName,
+                (e, elt) -> navigateToLogicFile(elt, serviceName, rpcName),
                 GutterIconRenderer.Alignment.LEFT,
-                () -> "Go to " + rpcInfo.rpcName + " logic"
+                () -> "Go to " + rpcName + " logic"
         );
     }
 
-    private void navigateToLogicFile(@NotNull PsiElement sourceElement, @NotNull RpcMethodInfo rpcInfo) {
+    private void navigateToLogicFile(@NotNull PsiElement sourceElement, @NotNull String serviceName, @NotNull String rpcName) {
         // Get naming style from .jzero.yaml configuration
         PsiFile containingFile = sourceElement.getContainingFile();
         String namingFormat = JzeroConfigReader.getNamingStyle(sourceElement.getProject(), containingFile);
 
         // Service name always uses "gozero" style (lowercase without separators)
-        String formattedServiceName = JzeroConfigReader.formatFileName("gozero", rpcInfo.serviceName);
+        String formattedServiceName = JzeroConfigReader.formatFileName("gozero", serviceName);
         // Format the rpc name according to jzero configuration style
-        String formattedRpcName = JzeroConfigReader.formatFileName(namingFormat, rpcInfo.rpcName);
+        String formattedRpcName = JzeroConfigReader.formatFileName(namingFormat, rpcName);
 
         // Navigate to logic files: internal/logic/$servicename/$rpcname.go
         String targetPath = "internal/logic/" + formattedServiceName + "/" + formattedRpcName + ".go";
@@ -76,7 +65,7 @@ public class ProtoGotoDeclarationHandler implements LineMarkerProvider {
         PsiFile targetFile = findLogicFile(sourceElement, targetPath, formattedServiceName, formattedRpcName);
         if (targetFile != null) {
             // Navigate to NewRpc function
-            navigateToNewRpcFunction(sourceElement.getProject(), targetFile, rpcInfo.rpcName);
+            navigateToNewRpcFunction(sourceElement.getProject(), targetFile, rpcName);
         }
     }
 
@@ -94,15 +83,7 @@ public class ProtoGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Calculate the base path by replacing "desc/proto" or "proto" with "internal/logic"
-        String filePath = sourceFile.getPath();
-        String basePath = filePath;
-
-        // Replace "desc/proto" or "proto" with "internal/logic"
-        if (filePath.contains("/desc/proto/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/proto/")) + "/internal/logic";
-        } else if (filePath.contains("/proto/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/proto/")) + "/internal/logic";
-        }
+        String basePath = logicBasePath(sourceFile.getPath());
 
         // Combine base path with target path (which already contains the relative part)
         String fullPath = basePath + "/" + targetPath.substring("internal/logic".length());
@@ -141,115 +122,86 @@ public class ProtoGotoDeclarationHandler implements LineMarkerProvider {
         descriptor.navigate(true);
     }
 
+    /**
+     * The rpc declared by the element, looked up in the file's cached outline. Only the leaf holding
+     * the rpc name matches, so every rpc gets one marker.
+     */
     @Nullable
-    private RpcMethodInfo findRpcMethodInfo(@NotNull PsiElement element) {
-        // Navigate through the PSI tree to find rpc method and service declarations
-        // Proto files structure: service ServiceName { rpc RpcName (...) returns (...); }
-
-        String rpcName = null;
-        String serviceName = null;
-
-        // Check if current element is the rpc method name identifier
-        // The element should be an identifier that comes right after "rpc" keyword
-        String elementText = element.getText();
-        if (elementText != null && elementText.matches("[a-zA-Z][a-zA-Z0-9_]*")) {
-            // Check if the previous sibling is "rpc" keyword
-            PsiElement prev = element.getPrevSibling();
-            while (prev != null && (prev.getText() == null || prev.getText().trim().isEmpty())) {
-                prev = prev.getPrevSibling();
-            }
-
-            if (prev != null && "rpc".equals(prev.getText().trim())) {
-                // This is the rpc method name
-                rpcName = elementText;
-            }
-        }
-
-        // If we found an rpc name, look for the service name
-        if (rpcName != null) {
-            PsiElement current = element;
-            while (current != null) {
-                String text = current.getText();
-                if (text != null && (text.trim().startsWith("service ") || text.contains("service "))) {
-                    serviceName = extractServiceName(current);
-                    if (serviceName != null) {
-                        break;
-                    }
-                }
-                current = current.getParent();
-            }
-        }
-
-        if (rpcName == null || serviceName == null) {
+    private static ProtoOutline.Rpc findRpc(@NotNull ProtoOutline outline, @NotNull PsiElement element) {
+        if (element.getFirstChild() != null) {
             return null;
         }
-
-        RpcMethodInfo info = new RpcMethodInfo();
-        info.rpcName = rpcName;
-        info.serviceName = serviceName;
-        return info;
+        ProtoOutline.Rpc rpc = outline.findRpc(element.getTextRange().getStartOffset());
+        return rpc != null && rpc.getName().length() == element.getTextLength() ? rpc : null;
     }
 
-    @Nullable
-    private String extractServiceName(@NotNull PsiElement element) {
-        // Extract service name from element text
-        // Expected format: "service ServiceName {"
-        String text = element.getText();
-        if (text == null) {
-            return null;
+    /**
+     * Adds rpc markers whose logic file exists. The naming style is read once and every service's logic
+     * folder is listed once for the whole batch.
+     */
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        long start = SLOW_MARKERS_TIMER.start();
+        try {
+            collectMarkers(elements, result);
+        } finally {
+            SLOW_MARKERS_TIMER.stop(start);
         }
+    }
 
-        // Simple extraction: look for "service " followed by identifier
-        String[] parts = text.trim().split("\\s+");
-        for (int i = 0; i < parts.length - 1; i++) {
-            if ("service".equals(parts[i])) {
-                String name = parts[i + 1];
-                // Remove any trailing characters like '{' or '}'
-                name = name.replaceAll("[^a-zA-Z0-9_].*", "");
-                if (!name.isEmpty()) {
-                    return name;
-                }
-            }
+    private void collectMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        if (elements.isEmpty()) {
+            return;
         }
-
-        // Alternative: check if element itself is the identifier after "service"
-        PsiElement prev = element.getPrevSibling();
-        while (prev != null) {
-            if (prev.getText() != null && prev.getText().trim().equals("service")) {
-                String name = element.getText();
-                if (name != null && name.matches("[a-zA-Z][a-zA-Z0-9_]*")) {
-                    return name;
-                }
-            }
-            prev = prev.getPrevSibling();
+        PsiFile containingFile = elements.get(0).getContainingFile();
+        if (containingFile == null || !containingFile.getName().endsWith(".proto")) {
+            return;
+        }
+        VirtualFile sourceFile = containingFile.getVirtualFile();
+        if (sourceFile == null) {
+            return;
         }
 
-        return null;
-    }
-
-    @Override
-    public void collectSlowLineMarkers(@NotNull java.util.List<? extends PsiElement> elements, @NotNull java.util.Collection<? super LineMarkerInfo<?>> result) {
-        // Not needed for this implementation
-    }
-
-    private boolean logicFileExists(@NotNull PsiElement element, @NotNull RpcMethodInfo rpcInfo) {
-        // Get naming style from .jzero.yaml configuration
-        PsiFile containingFile = element.getContainingFile();
-        String namingFormat = JzeroConfigReader.getNamingStyle(element.getProject(), containingFile);
+        ProtoOutline outline = ProtoOutline.of(containingFile);
+        if (outline.getServices().isEmpty()) {
+            return;
+        }
 
-        // Service name always uses "gozero" style (lowercase without separators)
-        String formattedServiceName = JzeroConfigReader.formatFileName("gozero", rpcInfo.serviceName);
-        // Format the rpc name according to jzero configuration style
-        String formattedRpcName = JzeroConfigReader.formatFileName(namingFormat, rpcInfo.rpcName);
+        String basePath = null;
+        String namingFormat = null;
+        FolderListing folders = null;
+        for (PsiElement element : elements) {
+            ProgressManager.checkCanceled();
+            ProtoOutline.Rpc rpc = findRpc(outline, element);
+            if (rpc == null) {
+                continue;
+            }
+            if (folders == null) {
+                basePath = logicBasePath(sourceFile.getPath());
+                namingFormat = JzeroConfigReader.getNamingStyle(containingFile.getProject(), containingFile);
+                folders = new FolderListing(sourceFile.getFileSystem());
+            }
 
-        // Navigate to logic files: internal/logic/$servicename/$rpcname.go
-        String targetPath = "internal/logic/" + formattedServiceName + "/" + formattedRpcName + ".go";
+            // Service name always uses "gozero" style (lowercase without separators)
+            String formattedServiceName = JzeroConfigReader.formatFileName("gozero", rpc.getService().getName());
+            // Format the rpc name according to jzero configuration style
+            String formattedRpcName = JzeroConfigReader.formatFileName(namingFormat, rpc.getName());
 
-        return findLogicFile(element, targetPath, formattedServiceName, formattedRpcName) != null;
+            // Logic files are internal/logic/$servicename/$rpcname.go
+            if (folders.find(basePath + "/" + formattedServiceName, formattedRpcName + ".go") != null) {
+                result.add(createNavigationMarkerForRpc(element, rpc.getService().getName(), rpc.getName()));
+            }
+        }
     }
 
-    private static class RpcMethodInfo {
-        String rpcName;
-        String serviceName;
+    @NotNull
+    private static String logicBasePath(@NotNull String filePath) {
+        // Replace "desc/proto" or "proto" with "internal/logic"
+        if (filePath.contains("/desc/proto/")) {
+            return filePath.substring(0, filePath.indexOf("/desc/proto/")) + "/internal/logic";
+        } else if (filePath.contains("/proto/")) {
+            return filePath.substring(0, filePath.indexOf("/proto/")) + "/internal/logic";
+        }
+        return filePath;
     }
 }
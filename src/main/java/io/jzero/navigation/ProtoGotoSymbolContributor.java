@@ -0,0 +1,101 @@
+package io.jzero.navigation;
+
+import io.jzero.icon.ApiIcon;
+import io.jzero.index.ProtoSymbolIndex;
+import com.intellij.navigation.ChooseByNameContributor;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.ArrayUtilRt;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * Go to Symbol for proto services, rpcs and messages, answered from {@link ProtoSymbolIndex}.
+ */
+public class ProtoGotoSymbolContributor implements ChooseByNameContributor {
+
+    @NotNull
+    @Override
+    public String[] getNames(Project project, boolean includeNonProjectItems) {
+        return ArrayUtilRt.toStringArray(ProtoSymbolIndex.getNames(project));
+    }
+
+    @NotNull
+    @Override
+    public NavigationItem[] getItemsByName(String name, String pattern, Project project, boolean includeNonProjectItems) {
+        GlobalSearchScope scope = includeNonProjectItems
+                ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
+        List<ProtoSymbolIndex.Location> locations = ProtoSymbolIndex.find(name, null, scope);
+        NavigationItem[] items = new NavigationItem[locations.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(project, locations.get(i));
+        }
+        return items;
+    }
+
+    private static class Item implements NavigationItem, ItemPresentation {
+        private final Project project;
+        private final ProtoSymbolIndex.Location location;
+
+        Item(@NotNull Project project, @NotNull ProtoSymbolIndex.Location location) {
+            this.project = project;
+            this.location = location;
+        }
+
+        @Override
+        public String getName() {
+            return location.getName();
+        }
+
+        @Override
+        public ItemPresentation getPresentation() {
+            return this;
+        }
+
+        @Override
+        public String getPresentableText() {
+            ProtoSymbolIndex.Symbol symbol = location.getSymbol();
+            switch (symbol.getKind()) {
+                case RPC:
+                    return symbol.getContainer() + "." + location.getName();
+                case MESSAGE:
+                    return symbol.getContainer();
+                default:
+                    return location.getName();
+            }
+        }
+
+        @Nullable
+        @Override
+        public String getLocationString() {
+            return "(" + location.getSymbol().getKind().name().toLowerCase() + " in " + location.getFile().getName() + ")";
+        }
+
+        @Nullable
+        @Override
+        public Icon getIcon(boolean unused) {
+            return ApiIcon.FILE;
+        }
+
+        @Override
+        public void navigate(boolean requestFocus) {
+            new OpenFileDescriptor(project, location.getFile(), location.getSymbol().getOffset()).navigate(requestFocus);
+        }
+
+        @Override
+        public boolean canNavigate() {
+            return location.getFile().isValid();
+        }
+
+        @Override
+        public boolean canNavigateToSource() {
+            return canNavigate();
+        }
+    }
+}
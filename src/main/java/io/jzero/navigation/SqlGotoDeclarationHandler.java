@@ -0,0 +1,138 @@
+package io.jzero.navigation;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.icon.ApiIcon;
+import io.jzero.index.SqlTableIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LineMarker provider for table navigation from desc/sql to the generated internal/model/$table package
+ * The tables of a file come from SqlTableIndex, markers are shown only for tables whose model folder exists
+ */
+public class SqlGotoDeclarationHandler implements LineMarkerProvider {
+    private static final Diagnostics.Timer SLOW_MARKERS_TIMER = Diagnostics.timer("line markers", "SqlGotoDeclarationHandler");
+
+    @Nullable
+    @Override
+    public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
+        // Table markers need the model folder to exist, they are added in collectSlowLineMarkers
+        return null;
+    }
+
+    /**
+     * Adds a marker for every indexed table of the file whose model folder exists. Without an sql plugin the
+     * whole file is one leaf, so the markers are placed by range inside the leaf that holds the table name.
+     */
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        long start = SLOW_MARKERS_TIMER.start();
+        try {
+            collectMarkers(elements, result);
+        } finally {
+            SLOW_MARKERS_TIMER.stop(start);
+        }
+    }
+
+    private void collectMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        PsiFile containingFile = elements.get(0).getContainingFile();
+        if (containingFile == null || !containingFile.getName().endsWith(".sql")) {
+            return;
+        }
+        VirtualFile sourceFile = containingFile.getVirtualFile();
+        if (sourceFile == null || !sourceFile.getPath().contains("/desc/sql/")) {
+            return;
+        }
+        Map<String, SqlTableIndex.Table> tables = SqlTableIndex.getTables(containingFile.getProject(), sourceFile);
+        if (tables.isEmpty()) {
+            return;
+        }
+
+        String basePath = modelBasePath(sourceFile.getPath());
+        FolderListing folders = new FolderListing(sourceFile.getFileSystem());
+        for (PsiElement element : elements) {
+            if (element.getFirstChild() != null) {
+                continue;
+            }
+            ProgressManager.checkCanceled();
+            TextRange elementRange = element.getTextRange();
+            for (Map.Entry<String, SqlTableIndex.Table> entry : tables.entrySet()) {
+                String table = entry.getKey();
+                int offset = entry.getValue().getOffset();
+                if (offset < elementRange.getStartOffset() || offset >= elementRange.getEndOffset()) {
+                    continue;
+                }
+                VirtualFile modelFolder = findModelFolder(folders, basePath, table);
+                if (modelFolder != null) {
+                    result.add(createNavigationMarker(element, new TextRange(offset, offset + table.length()), table, modelFolder));
+                }
+            }
+        }
+    }
+
+    private LineMarkerInfo<?> createNavigationMarker(@NotNull PsiElement element, @NotNull TextRange range,
+                                                     @NotNull String table, @NotNull VirtualFile modelFolder) {
+        return new LineMarkerInfo<>(
+                element,
+                range,
+                ApiIcon.FILE,
+                e -> "Navigate to Model: " + table,
+                (e, elt) -> navigateToModel(elt.getProject(), modelFolder),
+                GutterIconRenderer.Alignment.LEFT,
+                () -> "Go to " + table + " model"
+        );
+    }
+
+    @Nullable
+    private static VirtualFile findModelFolder(@NotNull FolderListing folders, @NotNull String basePath, @NotNull String table) {
+        VirtualFile folder = folders.find(basePath, table);
+        if (folder == null) {
+            folder = folders.find(basePath, table.toLowerCase());
+        }
+        return folder != null && folder.isDirectory() ? folder : null;
+    }
+
+    private void navigateToModel(@NotNull Project project, @NotNull VirtualFile modelFolder) {
+        if (!modelFolder.isValid()) {
+            return;
+        }
+        // Prefer the custom model file (xxmodel.go) over the generated one (xxmodel_gen.go)
+        VirtualFile target = null;
+        for (VirtualFile child : modelFolder.getChildren()) {
+            String name = child.getName();
+            if (name.endsWith("model.go")) {
+                target = child;
+                break;
+            }
+            if (target == null && name.endsWith(".go")) {
+                target = child;
+            }
+        }
+        if (target != null) {
+            new OpenFileDescriptor(project, target, 0).navigate(true);
+        }
+    }
+
+    @NotNull
+    private static String modelBasePath(@NotNull String filePath) {
+        // Replace "desc/sql" with "internal/model"
+        return filePath.substring(0, filePath.indexOf("/desc/sql/")) + "/internal/model";
+    }
+}
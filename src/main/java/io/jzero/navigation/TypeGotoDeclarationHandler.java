@@ -8,43 +8,32 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.search.FilenameIndex;
-import com.intellij.psi.search.GlobalSearchScope;
+import io.jzero.diagnostic.Diagnostics;
 import io.jzero.icon.ApiIcon;
 import io.jzero.psi.nodes.StructNameNode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * LineMarker provider for type navigation to types.go files
  * Based on ApiNavigationLineMarkerProvider pattern - only targets specific PSI node types
  */
 public class TypeGotoDeclarationHandler implements LineMarkerProvider {
+    private static final Diagnostics.Timer SLOW_MARKERS_TIMER = Diagnostics.timer("line markers", "TypeGotoDeclarationHandler");
 
     @Nullable
     @Override
     public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
-        // Only look for struct name nodes for navigation to types.go files
-        if (element instanceof StructNameNode) {
-            return createNavigationMarkerForStruct(element, (StructNameNode) element);
-        }
-
+        // Struct markers need types.go to exist, they are added in collectSlowLineMarkers
         return null;
     }
 
-    private LineMarkerInfo<?> createNavigationMarkerForStruct(@NotNull PsiElement element, @NotNull StructNameNode structNode) {
+    private LineMarkerInfo<?> createNavigationMarkerForStruct(@NotNull PsiElement element) {
         String structName = element.getText();
-        if (structName == null || structName.isEmpty()) {
-            return null;
-        }
-
-        // Check if the target types file exists before showing the marker
-        if (!typesFileExists(element)) {
-            return null;
-        }
-
         return new LineMarkerInfo<>(
                 element,
                 element.getTextRange(),
@@ -111,14 +100,7 @@ public class TypeGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Calculate the base path by replacing "desc/api" or "api" with "internal/types"
-        String filePath = sourceFile.getPath();
-        String basePath = filePath;
-
-        if (filePath.contains("/desc/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/types";
-        } else if (filePath.contains("/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/api/")) + "/internal/types";
-        }
+        String basePath = typesBasePath(sourceFile.getPath());
 
         // Combine base path with package path to get full path
         String fullPath;
@@ -148,14 +130,7 @@ public class TypeGotoDeclarationHandler implements LineMarkerProvider {
         }
 
         // Calculate the base path by replacing "desc/api" or "api" with "internal/types"
-        String filePath = sourceFile.getPath();
-        String basePath = filePath;
-
-        if (filePath.contains("/desc/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/types";
-        } else if (filePath.contains("/api/")) {
-            basePath = filePath.substring(0, filePath.indexOf("/api/")) + "/internal/types";
-        }
+        String basePath = typesBasePath(sourceFile.getPath());
 
         // Full path to internal/types/types.go
         String fullPath = basePath + "/types.go";
@@ -189,29 +164,58 @@ public class TypeGotoDeclarationHandler implements LineMarkerProvider {
         descriptor.navigate(true);
     }
 
+    /**
+     * Adds struct markers when the file's types.go exists. All structs of a file share one types.go,
+     * so go_package is read and the types folder listed once for the whole batch.
+     */
     @Override
-    public void collectSlowLineMarkers(@NotNull java.util.List<? extends PsiElement> elements, @NotNull java.util.Collection<? super LineMarkerInfo<?>> result) {
-        // Not needed for this implementation
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        long start = SLOW_MARKERS_TIMER.start();
+        try {
+            collectMarkers(elements, result);
+        } finally {
+            SLOW_MARKERS_TIMER.stop(start);
+        }
     }
 
-    private boolean typesFileExists(@NotNull PsiElement element) {
-        // Get current API file from the element
-        PsiFile currentApiFile = element.getContainingFile();
-        if (currentApiFile == null) {
-            return false;
+    private void collectMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        List<PsiElement> structs = new ArrayList<>();
+        for (PsiElement element : elements) {
+            if (element instanceof StructNameNode && !element.getText().isEmpty()) {
+                structs.add(element);
+            }
+        }
+        if (structs.isEmpty()) {
+            return;
         }
 
-        String goPackage = extractGoPackageFromApiFile(currentApiFile);
-
-        PsiFile targetGoFile;
+        PsiFile apiFile = structs.get(0).getContainingFile();
+        VirtualFile sourceFile = apiFile.getVirtualFile();
+        if (sourceFile == null) {
+            return;
+        }
+        String goPackage = extractGoPackageFromApiFile(apiFile);
+        String folderPath = typesBasePath(sourceFile.getPath());
         if (goPackage != null && !goPackage.isEmpty()) {
-            // Use smart path mapping based on go_package and source file path
-            targetGoFile = findTypesGoFile(element, goPackage);
-        } else {
-            // No go_package found, look for internal/types/types.go
-            targetGoFile = findRootTypesGoFile(element);
+            folderPath = folderPath + "/" + goPackage;
+        }
+        if (new FolderListing(sourceFile.getFileSystem()).find(folderPath, "types.go") == null) {
+            return;
         }
 
-        return targetGoFile != null;
+        for (PsiElement struct : structs) {
+            result.add(createNavigationMarkerForStruct(struct));
+        }
+    }
+
+    @NotNull
+    private static String typesBasePath(@NotNull String filePath) {
+        // Replace "desc/api" or "api" with "internal/types"
+        if (filePath.contains("/desc/api/")) {
+            return filePath.substring(0, filePath.indexOf("/desc/api/")) + "/internal/types";
+        } else if (filePath.contains("/api/")) {
+            return filePath.substring(0, filePath.indexOf("/api/")) + "/internal/types";
+        }
+        return filePath;
     }
 }
\ No newline at end of file
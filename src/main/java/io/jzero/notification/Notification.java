@@ -1,57 +1,104 @@
 package io.jzero.notification;
 
+import io.jzero.diagnostic.Log;
 import com.intellij.notification.NotificationDisplayType;
 import com.intellij.notification.NotificationGroup;
 import com.intellij.notification.NotificationType;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notifications of the plugin.
+ * <p>
+ * An operation that reports several steps opens a {@link Batch}: while it is open, the messages sent from
+ * the same thread are collected and posted as one entry when it closes, a balloon if any of them asked
+ * for one ({@link #notify} and {@link #error}). Balloons are rate limited, those that come too soon after
+ * the last one go to the event log only; errors are exempt and always show a balloon. Every message is
+ * also kept in the ring buffer of the plugin {@link Log}, shown in the Jzero tool window.
+ */
 public class Notification {
-    private static Notification notification;
+    private static final Log MESSAGES = Log.of(Notification.class);
+    private static final long BALLOON_INTERVAL_MILLIS = 3000;
+
     private final NotificationGroup POP = new NotificationGroup("goctl-pop", NotificationDisplayType.BALLOON, true);
     private final NotificationGroup LOG = new NotificationGroup("goctl-log", NotificationDisplayType.NONE, true);
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+    private final AtomicLong lastBalloon = new AtomicLong();
 
     private Notification() {
     }
 
+    // initialized on first use by the class loader, which makes it safe to reach from any thread
+    private static class Holder {
+        private static final Notification INSTANCE = new Notification();
+    }
+
     public static Notification getInstance() {
-        if (notification == null) {
-            notification = new Notification();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Collects the messages of the current thread into one notification until the batch is closed.
+     * A batch opened while another one is open on the same thread joins the outer one.
+     */
+    @NotNull
+    public Batch batch(Project project, @NotNull String operation) {
+        Batch outer = currentBatch.get();
+        if (outer != null) {
+            outer.depth++;
+            return outer;
         }
-        return notification;
+        Batch batch = new Batch(project, operation);
+        currentBatch.set(batch);
+        return batch;
     }
 
     public void notify(Project project, String content) {
-        if (project == null) {
-            return;
-        }
-        final com.intellij.notification.Notification notification = POP.createNotification(unWrapMsg(content), NotificationType.INFORMATION);
-        notification.notify(project);
+        post(project, unWrapMsg(content), NotificationType.INFORMATION, true);
     }
 
     public void log(Project project, String content) {
-        if (project == null) {
-            return;
-        }
-        final com.intellij.notification.Notification notification = LOG.createNotification(unWrapMsg(content), NotificationType.INFORMATION);
-        notification.notify(project);
+        post(project, unWrapMsg(content), NotificationType.INFORMATION, false);
     }
 
     public void error(Project project, String content) {
-        if (project == null) {
-            return;
-        }
-        final com.intellij.notification.Notification notification = POP.createNotification(unWrapMsg(content), NotificationType.ERROR);
-        notification.notify(project);
+        post(project, unWrapMsg(content), NotificationType.ERROR, true);
     }
 
     public void warning(Project project, String content) {
+        post(project, unWrapMsg(content), NotificationType.WARNING, false);
+    }
+
+    private void post(Project project, String content, NotificationType type, boolean balloon) {
         if (project == null) {
             return;
         }
-        final com.intellij.notification.Notification notification = LOG.createNotification(unWrapMsg(content), NotificationType.WARNING);
+        MESSAGES.info("{0}: {1}", type, content);
+        Batch batch = currentBatch.get();
+        if (batch != null && batch.project == project) {
+            batch.add(content, type, balloon);
+            return;
+        }
+        fire(project, content, type, balloon);
+    }
+
+    private void fire(@NotNull Project project, String content, NotificationType type, boolean balloon) {
+        NotificationGroup group = balloon && (type == NotificationType.ERROR || acquireBalloon()) ? POP : LOG;
+        final com.intellij.notification.Notification notification = group.createNotification(content, type);
         notification.notify(project);
     }
 
+    private boolean acquireBalloon() {
+        long now = System.currentTimeMillis();
+        long last = lastBalloon.get();
+        return now - last >= BALLOON_INTERVAL_MILLIS && lastBalloon.compareAndSet(last, now);
+    }
+
     private String unWrapMsg(String msg) {
         if (msg.startsWith("info-")) {
             return msg.replaceFirst("info-", "");
@@ -64,4 +111,47 @@ public class Notification {
         }
         return msg;
     }
+
+    /**
+     * The messages of one operation: {@code try (Notification.Batch batch = Notification.getInstance().batch(project, "goctl")) { ... }}
+     */
+    public class Batch implements AutoCloseable {
+        private final Project project;
+        private final String operation;
+        private final List<String> lines = new ArrayList<>();
+        private NotificationType type = NotificationType.INFORMATION;
+        private boolean balloon;
+        private int depth;
+
+        private Batch(Project project, String operation) {
+            this.project = project;
+            this.operation = operation;
+        }
+
+        private void add(String content, NotificationType type, boolean balloon) {
+            lines.add(content);
+            if (type == NotificationType.ERROR || type == NotificationType.WARNING && this.type == NotificationType.INFORMATION) {
+                this.type = type;
+            }
+            this.balloon |= balloon;
+        }
+
+        @Override
+        public void close() {
+            if (depth > 0) {
+                depth--;
+                return;
+            }
+            currentBatch.remove();
+            if (project == null || lines.isEmpty()) {
+                return;
+            }
+            // the content of a notification is HTML
+            StringBuilder content = new StringBuilder(StringUtil.escapeXmlEntities(operation));
+            for (String line : lines) {
+                content.append("<br>").append(StringUtil.escapeXmlEntities(line));
+            }
+            fire(project, content.toString(), type, balloon);
+        }
+    }
 }
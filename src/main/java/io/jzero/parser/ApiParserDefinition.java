@@ -2,11 +2,13 @@ package io.jzero.parser;
 
 import io.jzero.antlr4.ApiLexer;
 import io.jzero.antlr4.ApiParser;
+import io.jzero.diagnostic.Diagnostics;
 import io.jzero.language.ApiLanguage;
 import io.jzero.psi.ApiFile;
 import io.jzero.psi.nodes.*;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.ParserDefinition;
+import com.intellij.lang.PsiBuilder;
 import com.intellij.lang.PsiParser;
 import com.intellij.lexer.Lexer;
 import com.intellij.openapi.project.Project;
@@ -57,9 +59,12 @@ public class ApiParserDefinition implements ParserDefinition {
     public static final TokenSet WHITESPACE = ELEMENT_FACTORY.createTokenSet(ApiLexer.WS);
     public static final TokenSet STRING = ELEMENT_FACTORY.createTokenSet(ApiLexer.VALUE, ApiLexer.RAW_STRING);
 
+    private static final Diagnostics.Timer PARSE_TIMER = Diagnostics.timer("parser", "lex and parse .api file");
+    private static final Diagnostics.Counter PARSED_CHARS = Diagnostics.counter("parser", "characters parsed");
+
     private final Map<String, Method> parserRuleMethods = createParserRuleMethods();
 
-    ApiParserDefinition() {
+    public ApiParserDefinition() {
         register(ApiParser.RULE_api, ApiRootNode::new);
         register(ApiParser.RULE_apiBody, ApiBodyNode::new);
         register(ApiParser.RULE_importValue, ImportValueNode::new);
@@ -108,6 +113,22 @@ public class ApiParserDefinition implements ParserDefinition {
         final ApiParser apiParser = new ApiParser(null);
         return new AntlrParserAdapter(ApiLanguage.INSTANCE, apiParser, ELEMENT_FACTORY) {
 
+            // lexing happens here too, the builder pulls tokens as the parser asks for them
+            @Override
+            public @NotNull ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+                if (!(root instanceof IFileElementType)) {
+                    return super.parse(root, builder);
+                }
+                int length = builder.getOriginalText().length();
+                long start = PARSE_TIMER.start();
+                try {
+                    return super.parse(root, builder);
+                } finally {
+                    PARSE_TIMER.stop(start, length + " chars");
+                    PARSED_CHARS.add(length);
+                }
+            }
+
             @Override
             protected ParseTree parse(Parser parser, IElementType root) {
                 if (root instanceof IFileElementType) {
@@ -0,0 +1,85 @@
+package io.jzero.proto;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tokens of proto3 text for {@link ProtoOutline}: identifiers, string and number literals and single
+ * punctuation characters. Whitespace and comments are skipped.
+ * <p>
+ * Full identifiers such as {@code google.protobuf.Empty} come out as identifiers separated by '.' tokens.
+ */
+public class ProtoLexer {
+    public static final int EOF = -1;
+    public static final int IDENT = -2;
+    public static final int STRING = -3;
+    public static final int NUMBER = -4;
+
+    private final CharSequence text;
+    private int offset;
+    private int tokenStart;
+
+    public ProtoLexer(@NotNull CharSequence text) {
+        this.text = text;
+    }
+
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    public int getTokenEnd() {
+        return offset;
+    }
+
+    @NotNull
+    public String getTokenText() {
+        return text.subSequence(tokenStart, offset).toString();
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return {@link #EOF}, {@link #IDENT}, {@link #STRING}, {@link #NUMBER} or the punctuation character itself
+     */
+    public int next() {
+        int length = text.length();
+        while (offset < length) {
+            char c = text.charAt(offset);
+            tokenStart = offset;
+            if (Character.isWhitespace(c)) {
+                offset++;
+            } else if (c == '/' && offset + 1 < length && text.charAt(offset + 1) == '/') {
+                while (offset < length && text.charAt(offset) != '\n') {
+                    offset++;
+                }
+            } else if (c == '/' && offset + 1 < length && text.charAt(offset + 1) == '*') {
+                offset += 2;
+                while (offset < length && !(text.charAt(offset - 1) == '*' && text.charAt(offset) == '/')) {
+                    offset++;
+                }
+                offset = Math.min(offset + 1, length);
+            } else if (c == '"' || c == '\'') {
+                offset++;
+                while (offset < length && text.charAt(offset) != c && text.charAt(offset) != '\n') {
+                    offset += text.charAt(offset) == '\\' ? 2 : 1;
+                }
+                offset = Math.min(offset + 1, length);
+                return STRING;
+            } else if (Character.isLetter(c) || c == '_') {
+                while (offset < length && (Character.isLetterOrDigit(text.charAt(offset)) || text.charAt(offset) == '_')) {
+                    offset++;
+                }
+                return IDENT;
+            } else if (Character.isDigit(c)) {
+                while (offset < length && (Character.isLetterOrDigit(text.charAt(offset)) || text.charAt(offset) == '.')) {
+                    offset++;
+                }
+                return NUMBER;
+            } else {
+                offset++;
+                return c;
+            }
+        }
+        tokenStart = length;
+        return EOF;
+    }
+}
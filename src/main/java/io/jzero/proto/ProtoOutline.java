@@ -0,0 +1,264 @@
+package io.jzero.proto;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Services, rpcs and messages of a .proto file, found by one pass over its {@link ProtoLexer} tokens.
+ * <p>
+ * Only what navigation and indexing need is read: the blocks of {@code service Name { ... }}, the
+ * {@code rpc Name} declarations inside them and {@code message Name { ... }} blocks, nested ones included.
+ * The outline of a file is cached on its document until the document's modification stamp changes.
+ */
+public class ProtoOutline {
+    private static final Key<ProtoOutline> KEY = Key.create("jzero.proto.outline");
+
+    public static class Service {
+        private final String name;
+        private final int nameOffset;
+        private final int start;
+        private int end;
+        private final List<Rpc> rpcs = new ArrayList<>();
+
+        Service(@NotNull String name, int nameOffset, int start, int end) {
+            this.name = name;
+            this.nameOffset = nameOffset;
+            this.start = start;
+            this.end = end;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public int getNameOffset() {
+            return nameOffset;
+        }
+
+        /**
+         * Offset of the service keyword.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Offset after the closing brace, the end of the text if the block is not closed.
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        @NotNull
+        public List<Rpc> getRpcs() {
+            return rpcs;
+        }
+    }
+
+    public static class Rpc {
+        private final Service service;
+        private final String name;
+        private final int nameOffset;
+
+        Rpc(@NotNull Service service, @NotNull String name, int nameOffset) {
+            this.service = service;
+            this.name = name;
+            this.nameOffset = nameOffset;
+        }
+
+        @NotNull
+        public Service getService() {
+            return service;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public int getNameOffset() {
+            return nameOffset;
+        }
+    }
+
+    public static class Message {
+        private final String name;
+        private final String qualifiedName;
+        private final int nameOffset;
+
+        Message(@NotNull String name, @NotNull String qualifiedName, int nameOffset) {
+            this.name = name;
+            this.qualifiedName = qualifiedName;
+            this.nameOffset = nameOffset;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The name prefixed by its enclosing messages, Outer.Inner for nested ones.
+         */
+        @NotNull
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public int getNameOffset() {
+            return nameOffset;
+        }
+    }
+
+    private final long stamp;
+    private final List<Service> services;
+    private final List<Message> messages;
+    // name offset -> rpc
+    private final Map<Integer, Rpc> rpcs;
+
+    private ProtoOutline(long stamp, @NotNull List<Service> services, @NotNull List<Message> messages) {
+        this.stamp = stamp;
+        this.services = services;
+        this.messages = messages;
+        this.rpcs = new HashMap<>();
+        for (Service service : services) {
+            for (Rpc rpc : service.rpcs) {
+                rpcs.put(rpc.nameOffset, rpc);
+            }
+        }
+    }
+
+    /**
+     * The outline of the file's current text, scanned again only when its document has changed.
+     */
+    @NotNull
+    public static ProtoOutline of(@NotNull PsiFile file) {
+        Document document = file.getViewProvider().getDocument();
+        if (document == null) {
+            return scan(file.getViewProvider().getContents(), -1);
+        }
+        long stamp = document.getModificationStamp();
+        ProtoOutline outline = document.getUserData(KEY);
+        if (outline == null || outline.stamp != stamp) {
+            outline = scan(document.getImmutableCharSequence(), stamp);
+            document.putUserData(KEY, outline);
+        }
+        return outline;
+    }
+
+    @NotNull
+    public List<Service> getServices() {
+        return services;
+    }
+
+    @NotNull
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    /**
+     * The rpc whose name starts at the offset, null if there is none.
+     */
+    @Nullable
+    public Rpc findRpc(int nameOffset) {
+        return rpcs.get(nameOffset);
+    }
+
+    /**
+     * Reads the outline of proto text without caching, for indexing.
+     */
+    @NotNull
+    public static ProtoOutline scan(@NotNull CharSequence text) {
+        return scan(text, -1);
+    }
+
+    @NotNull
+    private static ProtoOutline scan(@NotNull CharSequence text, long stamp) {
+        List<Service> services = new ArrayList<>();
+        List<Message> messages = new ArrayList<>();
+        ProtoLexer lexer = new ProtoLexer(text);
+
+        int depth = 0;
+        // the service being read and the brace depth of its body
+        Service service = null;
+        int serviceDepth = -1;
+        // the messages being read, innermost first, and the brace depths of their bodies
+        Deque<Message> openMessages = new ArrayDeque<>();
+        Deque<Integer> messageDepths = new ArrayDeque<>();
+        // the keyword whose name is expected next, and where it started
+        String keyword = null;
+        int keywordOffset = -1;
+        String pendingName = null;
+        int pendingOffset = -1;
+
+        for (int token = lexer.next(); token != ProtoLexer.EOF; token = lexer.next()) {
+            if (token == ProtoLexer.IDENT) {
+                String ident = lexer.getTokenText();
+                boolean inMessageBody = !messageDepths.isEmpty() && depth == messageDepths.peek();
+                if (keyword != null && pendingName == null) {
+                    if (keyword.equals("rpc")) {
+                        service.rpcs.add(new Rpc(service, ident, lexer.getTokenStart()));
+                        keyword = null;
+                    } else {
+                        pendingName = ident;
+                        pendingOffset = lexer.getTokenStart();
+                    }
+                } else if (service == null && depth == 0 && ident.equals("service")) {
+                    keyword = ident;
+                    keywordOffset = lexer.getTokenStart();
+                    pendingName = null;
+                } else if (service == null && (depth == 0 || inMessageBody) && ident.equals("message")) {
+                    keyword = ident;
+                    pendingName = null;
+                } else if (service != null && depth == serviceDepth && ident.equals("rpc")) {
+                    keyword = ident;
+                    pendingName = null;
+                } else {
+                    keyword = null;
+                }
+                continue;
+            }
+
+            if (token == '{') {
+                depth++;
+                if ("service".equals(keyword) && pendingName != null) {
+                    service = new Service(pendingName, pendingOffset, keywordOffset, text.length());
+                    serviceDepth = depth;
+                    services.add(service);
+                } else if ("message".equals(keyword) && pendingName != null) {
+                    String qualifiedName = openMessages.isEmpty()
+                            ? pendingName : openMessages.peek().qualifiedName + "." + pendingName;
+                    Message message = new Message(pendingName, qualifiedName, pendingOffset);
+                    messages.add(message);
+                    openMessages.push(message);
+                    messageDepths.push(depth);
+                }
+            } else if (token == '}') {
+                if (service != null && depth == serviceDepth) {
+                    service.end = lexer.getTokenStart() + 1;
+                    service = null;
+                    serviceDepth = -1;
+                } else if (!messageDepths.isEmpty() && depth == messageDepths.peek()) {
+                    openMessages.pop();
+                    messageDepths.pop();
+                }
+                depth = Math.max(0, depth - 1);
+            }
+            keyword = null;
+            pendingName = null;
+        }
+        return new ProtoOutline(stamp, Collections.unmodifiableList(services), Collections.unmodifiableList(messages));
+    }
+}
@@ -0,0 +1,114 @@
+package io.jzero.psi;
+
+import io.jzero.antlr4.ApiParser;
+import io.jzero.psi.nodes.FieldNode;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.antlr.jetbrains.adapter.lexer.RuleIElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Fields of every struct in a file, nested structs included, collected in one pass and cached until the file changes.
+ * <p>
+ * A field belongs to the struct it is written in, never to an enclosing one: in
+ * {@code type A { B { Id int } Id int }} both A and B have exactly one Id.
+ */
+public class ApiFieldTable {
+    // structType node -> field name -> fields with that name, in declaration order
+    private final Map<ASTNode, Map<String, List<FieldNode>>> fields = new HashMap<>();
+
+    private ApiFieldTable() {
+    }
+
+    @NotNull
+    public static ApiFieldTable of(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(build(file), file));
+    }
+
+    /**
+     * The structType nodes that have fields, nested ones included.
+     */
+    @NotNull
+    public Set<ASTNode> getStructs() {
+        return fields.keySet();
+    }
+
+    /**
+     * @param struct a structType node
+     */
+    @NotNull
+    public Map<String, List<FieldNode>> getFields(@NotNull ASTNode struct) {
+        Map<String, List<FieldNode>> result = fields.get(struct);
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    /**
+     * Names declared more than once in the struct, with the name elements of every declaration.
+     *
+     * @param struct a structType node
+     */
+    @NotNull
+    public Map<String, Set<PsiElement>> getDuplicateFields(@NotNull ASTNode struct) {
+        Map<String, Set<PsiElement>> duplicates = new HashMap<>();
+        getFields(struct).forEach((name, declarations) -> {
+            if (declarations.size() < 2) {
+                return;
+            }
+            Set<PsiElement> nameNodes = new LinkedHashSet<>();
+            for (FieldNode field : declarations) {
+                PsiElement nameNode = field.getFiledNameNode();
+                if (nameNode != null) {
+                    nameNodes.add(nameNode);
+                }
+            }
+            duplicates.put(name, nameNodes);
+        });
+        return duplicates;
+    }
+
+    @NotNull
+    private static ApiFieldTable build(@NotNull PsiFile file) {
+        ApiFieldTable table = new ApiFieldTable();
+        ASTNode root = file.getNode();
+        if (root == null) {
+            return table;
+        }
+        Deque<ASTNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ASTNode node = stack.pop();
+            int rule = ruleIndex(node);
+            if (rule == ApiParser.RULE_typeFiled) {
+                // typeFiled is always a direct child of its structType
+                PsiElement psi = node.getPsi();
+                if (psi instanceof FieldNode) {
+                    FieldNode field = (FieldNode) psi;
+                    table.fields.computeIfAbsent(node.getTreeParent(), k -> new LinkedHashMap<>())
+                            .computeIfAbsent(field.getFiledName(), k -> new ArrayList<>(1))
+                            .add(field);
+                }
+            } else if (rule == ApiParser.RULE_serviceStatement || rule == ApiParser.RULE_infoStatement
+                    || rule == ApiParser.RULE_importStatement || rule == ApiParser.RULE_tag) {
+                continue;
+            }
+            // push in reverse so that fields are recorded in document order
+            for (ASTNode child = node.getLastChildNode(); child != null; child = child.getTreePrev()) {
+                if (child.getElementType() instanceof RuleIElementType) {
+                    stack.push(child);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int ruleIndex(@NotNull ASTNode node) {
+        IElementType type = node.getElementType();
+        return type instanceof RuleIElementType ? ((RuleIElementType) type).getRuleIndex() : -1;
+    }
+}
@@ -0,0 +1,540 @@
+package io.jzero.psi;
+
+import io.jzero.antlr4.ApiParser;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.language.ApiFileType;
+import io.jzero.parser.ApiParserDefinition;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.antlr.jetbrains.adapter.lexer.RuleIElementType;
+import org.antlr.jetbrains.adapter.lexer.TokenIElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Symbols of one .api file, collected in a single pass over the tree and cached until the file changes.
+ * <p>
+ * This is the one place that knows where things are declared: resolution, completion, duplicate
+ * checks and navigation all read from here instead of searching the PSI themselves.
+ */
+public class ApiSymbolTable {
+
+    public enum Kind {
+        // type Foo {...} and type (Foo {...})
+        STRUCT,
+        // type Foo int
+        ALIAS,
+        // type (Foo int)
+        GROUP_ALIAS,
+        // Foo {...} declared as a field of another struct
+        NESTED_STRUCT,
+        HANDLER,
+        ROUTE,
+        IMPORT,
+        // use of a type name in a field, anonymous field or route body
+        REFERENCE
+    }
+
+    public static class Symbol {
+        private final Kind kind;
+        private final String name;
+        private final String key;
+        private final String group;
+        private final String qualifier;
+        private final PsiElement element;
+        private final TextRange range;
+
+        Symbol(Kind kind, String name, String key, String group, String qualifier, PsiElement element, TextRange range) {
+            this.kind = kind;
+            this.name = name;
+            this.key = key;
+            this.group = group;
+            this.qualifier = qualifier;
+            this.element = element;
+            this.range = range;
+        }
+
+        @NotNull
+        public Kind getKind() {
+            return kind;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Identity used for duplicate checks, routes include the @server prefix.
+         */
+        @NotNull
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * The @server group of a handler or route, null elsewhere.
+         */
+        @Nullable
+        public String getGroup() {
+            return group;
+        }
+
+        /**
+         * The alias of a qualified reference (alias.Type) or of an import (import "a.api" as alias), null elsewhere.
+         */
+        @Nullable
+        public String getQualifier() {
+            return qualifier;
+        }
+
+        /**
+         * The identifier leaf for types and references, the rule node for everything else.
+         */
+        @NotNull
+        public PsiElement getElement() {
+            return element;
+        }
+
+        @NotNull
+        public TextRange getRange() {
+            return range;
+        }
+
+        public boolean isType() {
+            return kind == Kind.STRUCT || kind == Kind.ALIAS || kind == Kind.GROUP_ALIAS;
+        }
+    }
+
+    /**
+     * A key: value pair of an @server annotation.
+     */
+    public static class ServerPair {
+        private final String key;
+        private final String value;
+        private final PsiElement keyElement;
+        private final TextRange valueRange;
+
+        ServerPair(String key, String value, PsiElement keyElement, TextRange valueRange) {
+            this.key = key;
+            this.value = value;
+            this.keyElement = keyElement;
+            this.valueRange = valueRange;
+        }
+
+        @NotNull
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * The value as written, quotes included.
+         */
+        @NotNull
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * The comma separated parts of the value without quotes, e.g. the names in middleware: Auth,Log.
+         */
+        @NotNull
+        public List<String> getValues() {
+            List<String> values = new ArrayList<>();
+            for (String part : unquote(value).split(",")) {
+                String trimmed = part.trim();
+                if (!trimmed.isEmpty()) {
+                    values.add(trimmed);
+                }
+            }
+            return values;
+        }
+
+        /**
+         * The identifier leaf of the key.
+         */
+        @NotNull
+        public PsiElement getKeyElement() {
+            return keyElement;
+        }
+
+        @NotNull
+        public TextRange getValueRange() {
+            return valueRange;
+        }
+    }
+
+    private static final Diagnostics.CacheStats RESOLVE_CACHE = Diagnostics.cache("caches", "imported types for resolve");
+
+    private final List<Symbol> symbols = new ArrayList<>();
+    private final Map<String, Symbol> types = new LinkedHashMap<>();
+    private final List<Symbol> imports = new ArrayList<>();
+    private final Map<String, Symbol> importAliases = new HashMap<>();
+    private final List<ServerPair> serverPairs = new ArrayList<>();
+    // key offset -> pair
+    private final Map<Integer, ServerPair> serverPairsByKey = new HashMap<>();
+
+    private ApiSymbolTable() {
+    }
+
+    @NotNull
+    public static ApiSymbolTable of(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(new Builder().build(file), file));
+    }
+
+    /**
+     * Resolves a type name declared in the file or in any file it imports, directly or transitively.
+     */
+    @Nullable
+    public static PsiElement resolveType(@NotNull PsiFile file, @NotNull String name) {
+        Symbol local = of(file).types.get(name);
+        if (local != null) {
+            return local.element;
+        }
+        return importedTypes(file).get(name);
+    }
+
+    /**
+     * Resolves alias.Type: the file imported as alias, then the types it declares or imports itself.
+     */
+    @Nullable
+    public static PsiElement resolveQualifiedType(@NotNull PsiFile file, @NotNull String alias, @NotNull String name) {
+        Symbol anImport = of(file).importAliases.get(alias);
+        PsiFile imported = anImport != null ? importedFile(file, anImport.name) : null;
+        return imported != null ? resolveType(imported, name) : null;
+    }
+
+    /**
+     * Files imported by the given file, in import order. Unresolvable imports are skipped.
+     */
+    @NotNull
+    public static List<PsiFile> importedFiles(@NotNull PsiFile file) {
+        List<PsiFile> files = new ArrayList<>();
+        for (Symbol anImport : of(file).imports) {
+            PsiFile psiFile = importedFile(file, anImport.name);
+            if (psiFile != null) {
+                files.add(psiFile);
+            }
+        }
+        return files;
+    }
+
+    // import paths are relative to the directory of the importing file
+    @Nullable
+    private static PsiFile importedFile(@NotNull PsiFile file, @NotNull String path) {
+        VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+        VirtualFile directory = virtualFile != null ? virtualFile.getParent() : null;
+        VirtualFile imported = directory != null ? directory.findFileByRelativePath(path) : null;
+        if (imported == null || !(imported.getFileType() instanceof ApiFileType)) {
+            return null;
+        }
+        return file.getManager().findFile(imported);
+    }
+
+    @NotNull
+    private static Map<String, PsiElement> importedTypes(@NotNull PsiFile file) {
+        // counted as a hit here and corrected to a miss when the value is computed
+        RESOLVE_CACHE.hit();
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(
+                collectImportedTypes(file),
+                PsiModificationTracker.MODIFICATION_COUNT,
+                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS));
+    }
+
+    @NotNull
+    private static Map<String, PsiElement> collectImportedTypes(@NotNull PsiFile file) {
+        RESOLVE_CACHE.missAfterHit();
+        Map<String, PsiElement> result = new HashMap<>();
+        Set<PsiFile> visited = new HashSet<>();
+        visited.add(file);
+        Deque<PsiFile> queue = new ArrayDeque<>();
+        queue.add(file);
+        while (!queue.isEmpty()) {
+            PsiFile current = queue.poll();
+            for (PsiFile imported : importedFiles(current)) {
+                if (!visited.add(imported)) {
+                    continue;
+                }
+                of(imported).types.forEach((name, symbol) -> result.putIfAbsent(name, symbol.element));
+                queue.add(imported);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All symbols in document order.
+     */
+    @NotNull
+    public List<Symbol> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Top-level type declarations by name, the first one wins when a name is declared twice.
+     */
+    @NotNull
+    public Map<String, Symbol> getTypes() {
+        return types;
+    }
+
+    @NotNull
+    public List<Symbol> getImports() {
+        return imports;
+    }
+
+    @Nullable
+    public Symbol findType(@NotNull String name) {
+        return types.get(name);
+    }
+
+    /**
+     * The @server pairs of every service, in document order.
+     */
+    @NotNull
+    public List<ServerPair> getServerPairs() {
+        return serverPairs;
+    }
+
+    /**
+     * The @server pair whose key starts at the offset.
+     */
+    @Nullable
+    public ServerPair findServerPair(int keyOffset) {
+        return serverPairsByKey.get(keyOffset);
+    }
+
+    /**
+     * The symbol of the given kind whose range starts at the offset.
+     */
+    @Nullable
+    public Symbol findAt(@NotNull Kind kind, int offset) {
+        // symbols are in document order, find the first one starting at the offset
+        int low = 0;
+        int high = symbols.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (symbols.get(middle).range.getStartOffset() < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < symbols.size() && symbols.get(i).range.getStartOffset() == offset; i++) {
+            if (symbols.get(i).kind == kind) {
+                return symbols.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static class Builder {
+        private final ApiSymbolTable table = new ApiSymbolTable();
+        private String prefix = "";
+        private String group;
+
+        ApiSymbolTable build(@NotNull PsiFile file) {
+            ASTNode root = file.getNode();
+            if (root == null) {
+                return table;
+            }
+            Deque<ASTNode> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                ASTNode node = stack.pop();
+                IElementType type = node.getElementType();
+                if (type instanceof TokenIElementType) {
+                    if (((TokenIElementType) type).getAntlrTokenType() == ApiParser.IDENT) {
+                        visitIdent(node);
+                    }
+                    continue;
+                }
+                if (type instanceof RuleIElementType && !visitRule(node, ((RuleIElementType) type).getRuleIndex())) {
+                    continue;
+                }
+                // push in reverse so that children are visited in document order
+                for (ASTNode child = node.getLastChildNode(); child != null; child = child.getTreePrev()) {
+                    stack.push(child);
+                }
+            }
+            return table;
+        }
+
+        /**
+         * @return true if the children of the node should be visited
+         */
+        private boolean visitRule(@NotNull ASTNode node, int rule) {
+            switch (rule) {
+                case ApiParser.RULE_structNameId:
+                    visitStructName(node);
+                    return false;
+                case ApiParser.RULE_serviceStatement:
+                    prefix = "";
+                    group = null;
+                    return true;
+                case ApiParser.RULE_identPair:
+                    visitServerPairs(node);
+                    return false;
+                case ApiParser.RULE_handlerValue:
+                    add(Kind.HANDLER, node.getText(), node.getText(), node);
+                    return false;
+                case ApiParser.RULE_httpRoute:
+                    add(Kind.ROUTE, node.getText(), prefix + node.getText(), node);
+                    return false;
+                case ApiParser.RULE_importValue:
+                    visitImport(node);
+                    return false;
+                case ApiParser.RULE_referenceId:
+                    return visitReferenceId(node);
+                case ApiParser.RULE_infoStatement:
+                case ApiParser.RULE_syntaxLit:
+                case ApiParser.RULE_serviceDoc:
+                case ApiParser.RULE_serviceDocNew:
+                case ApiParser.RULE_tag:
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        private void visitIdent(@NotNull ASTNode ident) {
+            int parentRule = ruleIndex(ident.getTreeParent());
+            if (parentRule == ApiParser.RULE_referenceId || parentRule == ApiParser.RULE_body) {
+                add(Kind.REFERENCE, ident.getText(), ident.getText(), ident);
+            }
+        }
+
+        private void visitImport(@NotNull ASTNode importValue) {
+            ASTNode value = importValue.getFirstChildNode();
+            if (value == null) {
+                return;
+            }
+            // VALUE (AS IDENT)?
+            ASTNode alias = null;
+            for (ASTNode child = value.getTreeNext(); child != null; child = child.getTreeNext()) {
+                if (isToken(child, ApiParser.IDENT)) {
+                    alias = child;
+                }
+            }
+            String path = unquote(value.getText());
+            Symbol symbol = add(Kind.IMPORT, path, path, alias != null ? alias.getText() : null, value);
+            table.imports.add(symbol);
+            if (alias != null) {
+                table.importAliases.putIfAbsent(alias.getText(), symbol);
+            }
+        }
+
+        /**
+         * @return true for unqualified references, whose identifier is then visited as usual
+         */
+        private boolean visitReferenceId(@NotNull ASTNode referenceId) {
+            ASTNode pkg = referenceId.getFirstChildNode();
+            if (ruleIndex(pkg) != ApiParser.RULE_pkg) {
+                return true;
+            }
+            // pkg: IDENT DOT, followed by the type name
+            ASTNode qualifier = pkg.getFirstChildNode();
+            ASTNode ident = pkg.getTreeNext();
+            while (ident != null && !isToken(ident, ApiParser.IDENT)) {
+                ident = ident.getTreeNext();
+            }
+            if (qualifier != null && ident != null) {
+                add(Kind.REFERENCE, ident.getText(), ident.getText(), qualifier.getText(), ident);
+            }
+            return false;
+        }
+
+        private void visitStructName(@NotNull ASTNode structNameId) {
+            ASTNode ident = structNameId.getFirstChildNode();
+            if (ident == null) {
+                return;
+            }
+            ASTNode parent = structNameId.getTreeParent();
+            int parentRule = ruleIndex(parent);
+            Kind kind;
+            if (parentRule == ApiParser.RULE_typeAlias) {
+                kind = Kind.ALIAS;
+            } else if (parentRule == ApiParser.RULE_typeGroupAlias) {
+                kind = Kind.GROUP_ALIAS;
+            } else if (parentRule == ApiParser.RULE_structType) {
+                int grandParentRule = ruleIndex(parent.getTreeParent());
+                kind = grandParentRule == ApiParser.RULE_typeStruct || grandParentRule == ApiParser.RULE_typeGroupBody
+                        ? Kind.STRUCT : Kind.NESTED_STRUCT;
+            } else {
+                return;
+            }
+            String name = ident.getText();
+            Symbol symbol = add(kind, name, name, ident);
+            if (symbol.isType()) {
+                table.types.putIfAbsent(name, symbol);
+            }
+        }
+
+        // @server(key: value ...), prefix and group also apply to the routes and handlers that follow
+        private void visitServerPairs(@NotNull ASTNode identPair) {
+            ASTNode keyNode = null;
+            for (ASTNode child = identPair.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+                IElementType type = child.getElementType();
+                if (ApiParserDefinition.WHITESPACE.contains(type) || ApiParserDefinition.COMMENTS.contains(type)) {
+                    continue;
+                }
+                if (ruleIndex(child) == ApiParser.RULE_key) {
+                    keyNode = child;
+                    continue;
+                }
+                if (isToken(child, ApiParser.COLON) || keyNode == null) {
+                    continue;
+                }
+                String key = keyNode.getText();
+                if ("prefix".equals(key)) {
+                    prefix = child.getText();
+                } else if ("group".equals(key)) {
+                    group = unquote(child.getText());
+                }
+                ASTNode keyLeaf = keyNode.getFirstChildNode() != null ? keyNode.getFirstChildNode() : keyNode;
+                ServerPair pair = new ServerPair(key, child.getText(), keyLeaf.getPsi(), child.getTextRange());
+                table.serverPairs.add(pair);
+                table.serverPairsByKey.put(keyLeaf.getStartOffset(), pair);
+                keyNode = null;
+            }
+        }
+
+        private Symbol add(@NotNull Kind kind, @NotNull String name, @NotNull String key, @NotNull ASTNode node) {
+            return add(kind, name, key, null, node);
+        }
+
+        private Symbol add(@NotNull Kind kind, @NotNull String name, @NotNull String key, @Nullable String qualifier, @NotNull ASTNode node) {
+            boolean inService = kind == Kind.HANDLER || kind == Kind.ROUTE;
+            Symbol symbol = new Symbol(kind, name, key, inService ? group : null, qualifier, node.getPsi(), node.getTextRange());
+            table.symbols.add(symbol);
+            return symbol;
+        }
+    }
+
+    private static String unquote(@NotNull String text) {
+        return text.replaceAll("\"", "");
+    }
+
+    private static boolean isToken(@NotNull ASTNode node, int tokenType) {
+        IElementType type = node.getElementType();
+        return type instanceof TokenIElementType && ((TokenIElementType) type).getAntlrTokenType() == tokenType;
+    }
+
+    private static int ruleIndex(@Nullable ASTNode node) {
+        if (node == null) {
+            return -1;
+        }
+        IElementType type = node.getElementType();
+        return type instanceof RuleIElementType ? ((RuleIElementType) type).getRuleIndex() : -1;
+    }
+}
@@ -1,15 +1,25 @@
 package io.jzero.psi;
 
+import io.jzero.diagnostic.Diagnostics;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiNameIdentifierOwner;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.util.IncorrectOperationException;
 import org.antlr.jetbrains.adapter.psi.ScopeNode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public abstract class IReference extends PsiReferenceBase<IdentifierPSINode> {
+    // each resolve counts as a hit, the resolver only runs on a miss and corrects it
+    private static final Diagnostics.CacheStats RESOLVE_CACHE = Diagnostics.cache("caches", "ResolveCache references");
+    private static final ResolveCache.AbstractResolver<IReference, PsiElement> RESOLVER =
+            (reference, incompleteCode) -> {
+                RESOLVE_CACHE.missAfterHit();
+                return reference.resolveInner();
+            };
+
     public IReference(@NotNull IdentifierPSINode element) {
         super(element, new TextRange(0, element.getText().length()));
     }
@@ -25,14 +35,22 @@ public abstract class IReference extends PsiReferenceBase<IdentifierPSINode> {
         return myElement.setName(newElementName);
     }
 
+    /**
+     * Results are kept in {@link ResolveCache} until the next PSI change.
+     */
     @Nullable
     @Override
     public PsiElement resolve() {
+        RESOLVE_CACHE.hit();
+        return ResolveCache.getInstance(myElement.getProject()).resolveWithCaching(this, RESOLVER, false, false);
+    }
+
+    @Nullable
+    private PsiElement resolveInner() {
         ScopeNode scope = (ScopeNode) myElement.getContext();
         if (scope == null) return null;
 
-        PsiElement resolve = scope.resolve(myElement);
-        return resolve;
+        return scope.resolve(myElement);
     }
 
     @Override
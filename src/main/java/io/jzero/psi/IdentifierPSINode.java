@@ -16,6 +16,8 @@ import org.jetbrains.annotations.NotNull;
 
 
 public class IdentifierPSINode extends AntlrPsiLeafNode implements PsiNamedElement {
+    // one reference instance per parent keeps ResolveCache hits, reparse may move a leaf to a new parent
+    private volatile CachedReference myReference;
 
     public IdentifierPSINode(IElementType type, CharSequence text) {
         super(type, text);
@@ -44,6 +46,18 @@ public class IdentifierPSINode extends AntlrPsiLeafNode implements PsiNamedEleme
     @Override
     public PsiReference getReference() {
         PsiElement parent = getParent();
+        CachedReference cached = myReference;
+        if (cached == null || cached.parent != parent) {
+            cached = new CachedReference(parent, createReference(parent));
+            myReference = cached;
+        }
+        return cached.reference;
+    }
+
+    private PsiReference createReference(PsiElement parent) {
+        if (parent == null) {
+            return null;
+        }
         IElementType elType = parent.getNode().getElementType();
         if (elType instanceof RuleIElementType) {
             switch (((RuleIElementType) elType).getRuleIndex()) {
@@ -57,4 +71,14 @@ public class IdentifierPSINode extends AntlrPsiLeafNode implements PsiNamedEleme
         }
         return null;
     }
+
+    private static class CachedReference {
+        final PsiElement parent;
+        final PsiReference reference;
+
+        CachedReference(PsiElement parent, PsiReference reference) {
+            this.parent = parent;
+            this.reference = reference;
+        }
+    }
 }
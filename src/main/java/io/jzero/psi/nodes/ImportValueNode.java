@@ -20,10 +20,10 @@ public class ImportValueNode extends IPsiNode implements PsiNamedElement {
 
     @Override
     public String getName() {
-        // Extract the file path from the import statement
-        ASTNode lastChild = getNode().getLastChildNode();
-        if (lastChild != null) {
-            String text = lastChild.getText();
+        // Extract the file path from the import statement, importValue: VALUE (AS IDENT)?
+        ASTNode value = getNode().getFirstChildNode();
+        if (value != null) {
+            String text = value.getText();
             // Remove quotes and get just the filename
             return text.replaceAll("\"", "");
         }
@@ -36,8 +36,8 @@ public class ImportValueNode extends IPsiNode implements PsiNamedElement {
     }
 
     public PsiElement getNameIdentifier() {
-        ASTNode lastChild = getNode().getLastChildNode();
-        return lastChild != null ? lastChild.getPsi() : this;
+        ASTNode value = getNode().getFirstChildNode();
+        return value != null ? value.getPsi() : this;
     }
 
     @Override
@@ -59,10 +59,10 @@ public class ImportValueNode extends IPsiNode implements PsiNamedElement {
 
         @Override
         public TextRange getRangeInElement() {
-            ASTNode lastChild = element.getNode().getLastChildNode();
-            if (lastChild != null) {
-                int startOffset = lastChild.getStartOffsetInParent();
-                return new TextRange(startOffset, startOffset + lastChild.getTextLength());
+            ASTNode value = element.getNode().getFirstChildNode();
+            if (value != null) {
+                int startOffset = value.getStartOffsetInParent();
+                return new TextRange(startOffset, startOffset + value.getTextLength());
             }
             return new TextRange(0, element.getTextLength());
         }
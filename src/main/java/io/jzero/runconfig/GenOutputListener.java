@@ -0,0 +1,162 @@
+package io.jzero.runconfig;
+
+import io.jzero.diagnostic.Log;
+import io.jzero.notification.Notification;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the paths of the files jzero gen reports while its output streams to the console, and once the
+ * process ends refreshes only those files, asynchronously, then posts a summary.
+ * <p>
+ * Only the paths that name a file on disk once the process ends are kept, a relative name in a message
+ * always looks like a file of the project. A file that did not exist before is picked up by refreshing
+ * the closest directory the VFS already knows.
+ * If the output names no file the working directory is refreshed, which is still far less than the whole
+ * file system.
+ */
+class GenOutputListener extends ProcessAdapter {
+    private static final Log LOG = Log.of(GenOutputListener.class);
+    // relative or absolute paths of the kinds of files jzero generates
+    private static final Pattern PATH = Pattern.compile("(?:[A-Za-z]:)?[\\w.@/\\\\-]*[\\w-]+\\.(?:go|api|proto|sql|yaml|yml|json)\\b");
+
+    private final Project project;
+    private final File workingDirectory;
+    // paths outside of these are not files of the project
+    private final List<File> roots = new ArrayList<>();
+    // output not ended by a line break yet
+    private final StringBuilder partialLine = new StringBuilder();
+    private final Set<File> files = new LinkedHashSet<>();
+
+    GenOutputListener(@NotNull Project project, @NotNull File workingDirectory) {
+        this.project = project;
+        this.workingDirectory = workingDirectory;
+        roots.add(workingDirectory);
+        for (VirtualFile contentRoot : ProjectRootManager.getInstance(project).getContentRoots()) {
+            roots.add(VfsUtilCore.virtualToIoFile(contentRoot));
+        }
+    }
+
+    @Override
+    public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+        String text = event.getText();
+        if (text == null) {
+            return;
+        }
+        synchronized (partialLine) {
+            partialLine.append(text);
+            int end;
+            while ((end = partialLine.indexOf("\n")) >= 0) {
+                collect(partialLine.substring(0, end));
+                partialLine.delete(0, end + 1);
+            }
+        }
+    }
+
+    @Override
+    public void processTerminated(@NotNull ProcessEvent event) {
+        List<File> reported;
+        synchronized (partialLine) {
+            collect(partialLine.toString());
+            partialLine.setLength(0);
+            reported = new ArrayList<>(files);
+        }
+        int exitCode = event.getExitCode();
+        LOG.debug("jzero gen exited with {0}, {1} files reported", exitCode, reported.size());
+        // a relative name always resolves into the working directory, keep only those that name a file
+        reported.removeIf(file -> !file.exists());
+
+        List<VirtualFile> changed = new ArrayList<>();
+        Set<VirtualFile> directories = new LinkedHashSet<>();
+        LocalFileSystem fileSystem = LocalFileSystem.getInstance();
+        for (File file : reported) {
+            VirtualFile virtualFile = fileSystem.findFileByIoFile(file);
+            if (virtualFile != null) {
+                changed.add(virtualFile);
+                continue;
+            }
+            // a new file, its directory may be new as well
+            for (File parent = file.getParentFile(); parent != null; parent = parent.getParentFile()) {
+                VirtualFile directory = fileSystem.findFileByIoFile(parent);
+                if (directory != null) {
+                    directories.add(directory);
+                    break;
+                }
+            }
+        }
+        if (reported.isEmpty()) {
+            VirtualFile root = fileSystem.findFileByIoFile(workingDirectory);
+            if (root != null) {
+                directories.add(root);
+            }
+        }
+
+        List<VirtualFile> all = new ArrayList<>(changed);
+        all.addAll(directories);
+        if (all.isEmpty()) {
+            summarize(exitCode, reported.size(), false);
+            return;
+        }
+        VfsUtil.markDirty(false, false, changed.toArray(VirtualFile.EMPTY_ARRAY));
+        VfsUtil.markDirty(true, true, directories.toArray(VirtualFile.EMPTY_ARRAY));
+        fileSystem.refreshFiles(all, true, true, () -> summarize(exitCode, reported.size(), true));
+    }
+
+    private void collect(@NotNull String line) {
+        Matcher matcher = PATH.matcher(line);
+        while (matcher.find()) {
+            String path = matcher.group().replace('\\', '/');
+            File file = new File(path);
+            if (!file.isAbsolute()) {
+                file = new File(workingDirectory, path);
+            }
+            // names in messages that are not files of the project, e.g. a config file in the home directory
+            if (isInProject(file)) {
+                files.add(file);
+            }
+        }
+    }
+
+    private boolean isInProject(@NotNull File file) {
+        for (File root : roots) {
+            if (FileUtil.isAncestor(root, file, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void summarize(int exitCode, int fileCount, boolean refreshed) {
+        if (project.isDisposed()) {
+            return;
+        }
+        if (exitCode != 0) {
+            Notification.getInstance().error(project, "jzero gen failed with exit code " + exitCode + ", " + fileCount + " files refreshed");
+            return;
+        }
+        if (fileCount > 0) {
+            Notification.getInstance().notify(project, "jzero gen finished, " + fileCount + " files refreshed");
+        } else if (refreshed) {
+            Notification.getInstance().notify(project, "jzero gen finished, " + workingDirectory.getPath() + " refreshed");
+        } else {
+            Notification.getInstance().notify(project, "jzero gen finished");
+        }
+    }
+}
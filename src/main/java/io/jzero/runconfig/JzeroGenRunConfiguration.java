@@ -1,9 +1,12 @@
 package io.jzero.runconfig;
 
+import io.jzero.diagnostic.Diagnostics;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.Executor;
 import com.intellij.execution.configurations.*;
 import com.intellij.execution.process.KillableColoredProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessTerminatedListener;
 import com.intellij.execution.runners.ExecutionEnvironment;
@@ -16,10 +19,13 @@ import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+
 /**
- * Run configuration for jzero gen command execution
+ * Run configuration for jzero gen command execution, refreshes the files the command reports when it ends
  */
 public class JzeroGenRunConfiguration extends RunConfigurationBase<RunProfileState> {
+    private static final Diagnostics.Timer GEN_TIMER = Diagnostics.timer("processes", "jzero gen");
 
     private String command = "";
     private String workingDirectory = "";
@@ -68,6 +74,19 @@ public class JzeroGenRunConfiguration extends RunConfigurationBase<RunProfileSta
                 KillableColoredProcessHandler processHandler =
                     new KillableColoredProcessHandler(commandLine);
                 ProcessTerminatedListener.attach(processHandler);
+                long start = GEN_TIMER.start();
+                processHandler.addProcessListener(new ProcessAdapter() {
+                    @Override
+                    public void processTerminated(@NotNull ProcessEvent event) {
+                        GEN_TIMER.stop(start);
+                    }
+                });
+                String directory = commandLine.getWorkDirectory() != null
+                    ? commandLine.getWorkDirectory().getPath()
+                    : getProject().getBasePath();
+                if (directory != null) {
+                    processHandler.addProcessListener(new GenOutputListener(getProject(), new File(directory)));
+                }
                 return processHandler;
             }
         };
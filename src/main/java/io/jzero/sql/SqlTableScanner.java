@@ -0,0 +1,228 @@
+package io.jzero.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the {@code CREATE TABLE} statements of a DDL file: table names and column names, nothing else.
+ * <p>
+ * Comments ({@code --}, {@code #} and block comments) and string literals are skipped. Names may be
+ * quoted with backticks or double quotes and qualified by a schema, {@code `db`.`user`} is table user.
+ */
+public class SqlTableScanner {
+    // first words of the items of a column list that are not columns
+    private static final Set<String> CONSTRAINTS = new HashSet<>(Arrays.asList(
+            "PRIMARY", "KEY", "UNIQUE", "INDEX", "CONSTRAINT", "FOREIGN", "CHECK", "FULLTEXT", "SPATIAL", "EXCLUDE", "LIKE"));
+
+    private static final int EOF = -1;
+    private static final int IDENT = -2;
+    private static final int QUOTED = -3;
+
+    public static class Table {
+        private final String name;
+        private final int nameOffset;
+        private final List<String> columns;
+
+        public Table(@NotNull String name, int nameOffset, @NotNull List<String> columns) {
+            this.name = name;
+            this.nameOffset = nameOffset;
+            this.columns = columns;
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public int getNameOffset() {
+            return nameOffset;
+        }
+
+        @NotNull
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+
+    private final CharSequence text;
+    private int offset;
+    private int tokenStart;
+    private int tokenEnd;
+    private int token;
+
+    private SqlTableScanner(@NotNull CharSequence text) {
+        this.text = text;
+    }
+
+    @NotNull
+    public static List<Table> scan(@NotNull CharSequence text) {
+        return new SqlTableScanner(text).tables();
+    }
+
+    @NotNull
+    private List<Table> tables() {
+        List<Table> tables = new ArrayList<>();
+        for (next(); token != EOF; ) {
+            if (token == IDENT && is("CREATE")) {
+                Table table = createTable();
+                if (table != null) {
+                    tables.add(table);
+                }
+            } else {
+                next();
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Reads a statement starting at CREATE, null if it does not create a table.
+     */
+    private Table createTable() {
+        // CREATE [TEMPORARY | UNLOGGED | ...] TABLE
+        next();
+        while (token == IDENT && !is("TABLE")) {
+            if (is("CREATE") || is("VIEW") || is("INDEX") || is("DATABASE") || is("SCHEMA")) {
+                return null;
+            }
+            next();
+        }
+        if (token != IDENT) {
+            return null;
+        }
+        next();
+        // IF NOT EXISTS
+        if (token == IDENT && is("IF")) {
+            next();
+            if (token == IDENT && is("NOT")) {
+                next();
+            }
+            if (token == IDENT && is("EXISTS")) {
+                next();
+            }
+        }
+
+        // [schema.]name, the last part is the table
+        if (token != IDENT && token != QUOTED) {
+            return null;
+        }
+        String name = tokenText();
+        int nameOffset = tokenStart;
+        next();
+        while (token == '.') {
+            next();
+            if (token != IDENT && token != QUOTED) {
+                break;
+            }
+            name = tokenText();
+            nameOffset = tokenStart;
+            next();
+        }
+
+        if (token != '(') {
+            return new Table(name, nameOffset, Collections.emptyList());
+        }
+        return new Table(name, nameOffset, columns());
+    }
+
+    /**
+     * Reads the column list after its opening parenthesis, up to and including the closing one.
+     */
+    @NotNull
+    private List<String> columns() {
+        List<String> columns = new ArrayList<>();
+        int depth = 1;
+        boolean itemStart = true;
+        next();
+        while (token != EOF && depth > 0) {
+            if (token == '(') {
+                depth++;
+            } else if (token == ')') {
+                depth--;
+            } else if (depth == 1 && token == ',') {
+                itemStart = true;
+                next();
+                continue;
+            } else if (depth == 1 && token == ';') {
+                break;
+            } else if (itemStart && (token == QUOTED || token == IDENT && !CONSTRAINTS.contains(upperText()))) {
+                columns.add(tokenText());
+            }
+            itemStart = false;
+            next();
+        }
+        return columns;
+    }
+
+    private boolean is(@NotNull String keyword) {
+        return tokenEnd - tokenStart == keyword.length() && upperText().equals(keyword);
+    }
+
+    @NotNull
+    private String tokenText() {
+        return text.subSequence(tokenStart, tokenEnd).toString();
+    }
+
+    @NotNull
+    private String upperText() {
+        return tokenText().toUpperCase();
+    }
+
+    private void next() {
+        token = read();
+    }
+
+    private int read() {
+        int length = text.length();
+        while (offset < length) {
+            char c = text.charAt(offset);
+            tokenStart = offset;
+            if (Character.isWhitespace(c)) {
+                offset++;
+            } else if (c == '#' || c == '-' && offset + 1 < length && text.charAt(offset + 1) == '-') {
+                while (offset < length && text.charAt(offset) != '\n') {
+                    offset++;
+                }
+            } else if (c == '/' && offset + 1 < length && text.charAt(offset + 1) == '*') {
+                offset += 2;
+                while (offset < length && !(text.charAt(offset - 1) == '*' && text.charAt(offset) == '/')) {
+                    offset++;
+                }
+                offset = Math.min(offset + 1, length);
+            } else if (c == '\'') {
+                offset++;
+                while (offset < length && text.charAt(offset) != '\'') {
+                    offset += text.charAt(offset) == '\\' ? 2 : 1;
+                }
+                offset = Math.min(offset + 1, length);
+            } else if (c == '`' || c == '"') {
+                int close = offset + 1;
+                while (close < length && text.charAt(close) != c) {
+                    close++;
+                }
+                tokenStart = offset + 1;
+                tokenEnd = Math.min(close, length);
+                offset = Math.min(close + 1, length);
+                return QUOTED;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                while (offset < length && (Character.isLetterOrDigit(text.charAt(offset)) || text.charAt(offset) == '_' || text.charAt(offset) == '$')) {
+                    offset++;
+                }
+                tokenEnd = offset;
+                return IDENT;
+            } else {
+                offset++;
+                tokenEnd = offset;
+                return c;
+            }
+        }
+        tokenStart = tokenEnd = length;
+        return EOF;
+    }
+}
@@ -1,11 +1,6 @@
 package io.jzero.template;
 
-import io.jzero.antlr4.ApiLexer;
-import io.jzero.parser.ApiParserDefinition;
 import com.intellij.codeInsight.template.EverywhereContextType;
-import com.intellij.psi.PsiComment;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.impl.source.tree.LeafPsiElement;
 import org.jetbrains.annotations.NotNull;
 
 public class ApiEverywhereContextType extends ApiLiveTemplateContextType {
@@ -14,8 +9,7 @@ public class ApiEverywhereContextType extends ApiLiveTemplateContextType {
     }
 
     @Override
-    protected boolean isInContext(@NotNull PsiElement element) {
-        return !(element instanceof PsiComment ||
-                element instanceof LeafPsiElement && ((LeafPsiElement) element).getElementType() == ApiParserDefinition.token(ApiLexer.VALUE));
+    protected boolean isInContext(@NotNull TemplateContext context) {
+        return context.isEverywhere();
     }
 }
@@ -2,21 +2,17 @@
 
 package io.jzero.template;
 
-import io.jzero.antlr4.ApiParser;
-import io.jzero.parser.ApiParserDefinition;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.codeInsight.template.*;
-import com.intellij.lang.ASTNode;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.PsiFile;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
 
 public class ApiFieldNameMacro extends Macro {
@@ -50,31 +46,11 @@ public class ApiFieldNameMacro extends Macro {
 
     private static Set<String> fieldNames(ExpressionContext context) {
         PsiElement psiElement = context != null ? context.getPsiElementAtStartOffset() : null;
-        if (psiElement == null) {
+        PsiFile file = psiElement != null ? psiElement.getContainingFile() : null;
+        if (file == null) {
             return Collections.emptySet();
         }
-        ASTNode node = psiElement.getNode();
-        while (true) {
-            if (node == null) {
-                return Collections.emptySet();
-            }
-            if (node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_normalField))) {
-                ASTNode fieldNameNode = node.getFirstChildNode();
-                if (fieldNameNode == null) {
-                    return Collections.emptySet();
-                }
-                IElementType elementType = fieldNameNode.getElementType();
-                if (elementType.equals(ApiParserDefinition.rule(ApiParser.RULE_fieldName))) {
-                    Set<String> set = new HashSet<String>();
-                    set.add(fieldNameNode.getText());
-                    return set;
-                }
-            } else if (node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_fieldName))) {
-                Set<String> set = new HashSet<String>();
-                set.add(node.getText());
-                return set;
-            }
-            node = node.getTreeParent();
-        }
+        String name = TemplateContext.of(file, context.getStartOffset()).getFieldName();
+        return name != null ? Collections.singleton(name) : Collections.emptySet();
     }
 }
@@ -1,21 +1,9 @@
-
 package io.jzero.template;
 
-import io.jzero.antlr4.ApiLexer;
-import io.jzero.antlr4.ApiParser;
 import io.jzero.highlighting.ApiSyntaxHighlighter;
-import io.jzero.language.ApiLanguage;
-import io.jzero.parser.ApiParserDefinition;
-import io.jzero.psi.ApiFile;
 import com.intellij.codeInsight.template.TemplateContextType;
-import com.intellij.lang.ASTNode;
 import com.intellij.openapi.fileTypes.SyntaxHighlighter;
-import com.intellij.psi.*;
-import com.intellij.psi.impl.source.tree.LeafPsiElement;
-import com.intellij.psi.tree.IElementType;
-import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.psi.util.PsiUtilCore;
-import com.intellij.util.ObjectUtils;
+import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -29,51 +17,11 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
 
     @Override
     public boolean isInContext(@NotNull PsiFile file, int offset) {
-        if (PsiUtilCore.getLanguageAtOffset(file, offset).isKindOf(ApiLanguage.INSTANCE)) {
-            PsiElement psiElement = ObjectUtils.notNull(file.findElementAt(offset), file);
-            if (!acceptLeaf()) {
-                psiElement = getFirstCompositeElement(psiElement);
-            }
-            return psiElement != null && isInContext(psiElement);
-        }
-
-        return false;
-    }
-
-    protected boolean acceptLeaf() {
-        return false;
-    }
-
-    @Nullable
-    public static PsiElement prevVisibleLeafOrNewLine(PsiElement element) {
-        PsiElement prevLeaf = element;
-        while ((prevLeaf = PsiTreeUtil.prevLeaf(prevLeaf)) != null) {
-            if (prevLeaf instanceof PsiComment || prevLeaf instanceof PsiErrorElement) {
-                continue;
-            }
-            if (prevLeaf instanceof PsiWhiteSpace) {
-                if (prevLeaf.textContains('\n')) {
-                    return prevLeaf;
-                }
-                continue;
-            }
-            break;
-        }
-        return prevLeaf;
-    }
-
-    @Nullable
-    private static PsiElement getFirstCompositeElement(@Nullable PsiElement at) {
-        if (at instanceof PsiComment || at instanceof LeafPsiElement && ((LeafPsiElement) at).getElementType() == ApiParserDefinition.token(ApiLexer.VALUE))
-            return at;
-        PsiElement result = at;
-        while (result != null && (result instanceof PsiWhiteSpace || result.getNode().getChildren(null).length == 0)) {
-            result = result.getParent();
-        }
-        return result;
+        TemplateContext context = TemplateContext.of(file, offset);
+        return context.isApi() && isInContext(context);
     }
 
-    protected abstract boolean isInContext(@NotNull PsiElement element);
+    protected abstract boolean isInContext(@NotNull TemplateContext context);
 
     @Override
     public SyntaxHighlighter createHighlighter() {
@@ -88,17 +36,8 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
         }
 
         @Override
-        protected boolean isInContext(@NotNull PsiElement element) {
-            ASTNode node = element.getNode();
-            if (node == null) {
-                return false;
-            }
-            ASTNode treeParent = node.getTreeParent();
-            if (treeParent == null) {
-                return false;
-            }
-
-            return treeParent.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_normalFieldType));
+        protected boolean isInContext(@NotNull TemplateContext context) {
+            return context.isStruct();
         }
     }
 
@@ -109,17 +48,8 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
         }
 
         @Override
-        protected boolean isInContext(@NotNull PsiElement element) {
-            ASTNode node = element.getNode();
-            if (node == null) {
-                return false;
-            }
-            ASTNode treeParent = node.getTreeParent();
-            if (treeParent == null) {
-                return false;
-            }
-
-            return treeParent.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_apiBody)) || treeParent.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_api));
+        protected boolean isInContext(@NotNull TemplateContext context) {
+            return context.isApiFile();
         }
     }
 
@@ -130,23 +60,8 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
         }
 
         @Override
-        protected boolean isInContext(@NotNull PsiElement element) {
-            ASTNode node = element.getNode();
-            while (true) {
-                if (node == null) {
-                    return false;
-                }
-                if (node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_serviceStatement))) {
-                    return true;
-                }
-                if (node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_serviceSpec))) {
-                    return true;
-                }
-                if (node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_serviceBody))) {
-                    return true;
-                }
-                node = node.getTreeParent();
-            }
+        protected boolean isInContext(@NotNull TemplateContext context) {
+            return context.isService();
         }
     }
 
@@ -157,42 +72,8 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
         }
 
         @Override
-        protected boolean isInContext(@NotNull PsiElement element) {
-            if (element.getNode().getElementType() == ApiParserDefinition.IDENTIFIER) {
-                if (isInsideFieldTypeDeclaration(element)) {
-                    return true;
-                }
-                if (isInsideFieldTypeDeclaration(prevVisibleLeafOrNewLine(element))) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        private static boolean isInsideFieldTypeDeclaration(@Nullable PsiElement element) {
-            if (element != null) {
-                PsiElement parent = element.getParent();
-                ASTNode node = parent.getNode();
-                if (node == null) {
-                    return false;
-                }
-                ASTNode normalTypeNode = node.getTreeParent();
-                if (normalTypeNode == null) {
-                    return false;
-                }
-                ASTNode filedNode = normalTypeNode.getTreeParent();
-                if (filedNode == null) {
-                    return false;
-                }
-                IElementType elementType = filedNode.getElementType();
-                return elementType.equals(ApiParserDefinition.rule(ApiParser.RULE_typeFiled));
-            }
-            return false;
-        }
-
-        @Override
-        protected boolean acceptLeaf() {
-            return true;
+        protected boolean isInContext(@NotNull TemplateContext context) {
+            return context.isTag();
         }
     }
 
@@ -202,13 +83,11 @@ abstract public class ApiLiveTemplateContextType extends TemplateContextType {
         }
 
         @Override
-        protected boolean isInContext(@NotNull PsiElement element) {
-            ASTNode node = element.getNode();
-            if (node == null) {
-                return false;
-            }
-            return node.getElementType().equals(ApiParserDefinition.rule(ApiParser.RULE_tag));
+        protected boolean isInContext(@NotNull TemplateContext context) {
+            return context.isTagLiteral();
         }
     }
 
 }
+
+
@@ -0,0 +1,208 @@
+package io.jzero.template;
+
+import io.jzero.antlr4.ApiLexer;
+import io.jzero.antlr4.ApiParser;
+import io.jzero.language.ApiLanguage;
+import io.jzero.parser.ApiParserDefinition;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.util.ObjectUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * What the live template context types and {@link ApiFieldNameMacro} need to know about an offset of a .api file.
+ * <p>
+ * The platform asks every context type in turn about the same offset, so the answers are worked out together
+ * once and kept on the file for its current modification stamp and that offset.
+ */
+class TemplateContext {
+    private static final Key<TemplateContext> KEY = Key.create("jzero.template.context");
+
+    private static final IElementType VALUE = ApiParserDefinition.token(ApiLexer.VALUE);
+    private static final IElementType API = ApiParserDefinition.rule(ApiParser.RULE_api);
+    private static final IElementType API_BODY = ApiParserDefinition.rule(ApiParser.RULE_apiBody);
+    private static final IElementType NORMAL_FIELD_TYPE = ApiParserDefinition.rule(ApiParser.RULE_normalFieldType);
+    private static final IElementType NORMAL_FIELD = ApiParserDefinition.rule(ApiParser.RULE_normalField);
+    private static final IElementType FIELD_NAME = ApiParserDefinition.rule(ApiParser.RULE_fieldName);
+    private static final IElementType TYPE_FIELD = ApiParserDefinition.rule(ApiParser.RULE_typeFiled);
+    private static final IElementType TAG = ApiParserDefinition.rule(ApiParser.RULE_tag);
+    private static final IElementType SERVICE_STATEMENT = ApiParserDefinition.rule(ApiParser.RULE_serviceStatement);
+    private static final IElementType SERVICE_SPEC = ApiParserDefinition.rule(ApiParser.RULE_serviceSpec);
+    private static final IElementType SERVICE_BODY = ApiParserDefinition.rule(ApiParser.RULE_serviceBody);
+
+    private final long stamp;
+    private final int offset;
+    private final boolean api;
+    private final boolean everywhere;
+    private final boolean struct;
+    private final boolean apiFile;
+    private final boolean service;
+    private final boolean tag;
+    private final boolean tagLiteral;
+    @Nullable
+    private final String fieldName;
+
+    private TemplateContext(@NotNull PsiFile file, int offset) {
+        this.stamp = file.getModificationStamp();
+        this.offset = offset;
+        this.api = PsiUtilCore.getLanguageAtOffset(file, offset).isKindOf(ApiLanguage.INSTANCE);
+        PsiElement leaf = ObjectUtils.notNull(file.findElementAt(offset), file);
+        PsiElement composite = api ? getFirstCompositeElement(leaf) : null;
+        this.everywhere = composite != null && isEverywhere(composite);
+        this.struct = composite != null && hasParent(composite, NORMAL_FIELD_TYPE);
+        this.apiFile = composite != null && (hasParent(composite, API_BODY) || hasParent(composite, API));
+        this.service = composite != null && isInService(composite);
+        this.tagLiteral = composite != null && composite.getNode() != null && composite.getNode().getElementType() == TAG;
+        this.tag = api && isTag(leaf);
+        this.fieldName = api ? findFieldName(leaf) : null;
+    }
+
+    @NotNull
+    static TemplateContext of(@NotNull PsiFile file, int offset) {
+        TemplateContext context = file.getUserData(KEY);
+        if (context == null || context.stamp != file.getModificationStamp() || context.offset != offset) {
+            context = new TemplateContext(file, offset);
+            file.putUserData(KEY, context);
+        }
+        return context;
+    }
+
+    /**
+     * The offset is in .api code, none of the other answers hold otherwise.
+     */
+    boolean isApi() {
+        return api;
+    }
+
+    // anywhere but in comments and string values
+    boolean isEverywhere() {
+        return everywhere;
+    }
+
+    // the type of a struct field
+    boolean isStruct() {
+        return struct;
+    }
+
+    // top level declarations
+    boolean isApiFile() {
+        return apiFile;
+    }
+
+    boolean isService() {
+        return service;
+    }
+
+    // after the type of a struct field, where its tag goes
+    boolean isTag() {
+        return tag;
+    }
+
+    // inside the tag of a struct field
+    boolean isTagLiteral() {
+        return tagLiteral;
+    }
+
+    /**
+     * The name of the struct field around the offset, null outside of fields.
+     */
+    @Nullable
+    String getFieldName() {
+        return fieldName;
+    }
+
+    @Nullable
+    private static PsiElement getFirstCompositeElement(@Nullable PsiElement at) {
+        if (at instanceof PsiComment || at instanceof LeafPsiElement && ((LeafPsiElement) at).getElementType() == VALUE)
+            return at;
+        PsiElement result = at;
+        while (result != null && !(result instanceof PsiFile)
+                && (result instanceof PsiWhiteSpace || result.getNode().getFirstChildNode() == null)) {
+            result = result.getParent();
+        }
+        return result;
+    }
+
+    private static boolean isEverywhere(@NotNull PsiElement element) {
+        return !(element instanceof PsiComment ||
+                element instanceof LeafPsiElement && ((LeafPsiElement) element).getElementType() == VALUE);
+    }
+
+    private static boolean hasParent(@NotNull PsiElement element, @NotNull IElementType parentType) {
+        ASTNode node = element.getNode();
+        ASTNode treeParent = node != null ? node.getTreeParent() : null;
+        return treeParent != null && treeParent.getElementType().equals(parentType);
+    }
+
+    private static boolean isInService(@NotNull PsiElement element) {
+        for (ASTNode node = element.getNode(); node != null; node = node.getTreeParent()) {
+            IElementType type = node.getElementType();
+            if (type.equals(SERVICE_STATEMENT) || type.equals(SERVICE_SPEC) || type.equals(SERVICE_BODY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTag(@NotNull PsiElement leaf) {
+        if (leaf.getNode() == null || leaf.getNode().getElementType() != ApiParserDefinition.IDENTIFIER) {
+            return false;
+        }
+        return isInsideFieldTypeDeclaration(leaf) || isInsideFieldTypeDeclaration(prevVisibleLeafOrNewLine(leaf));
+    }
+
+    private static boolean isInsideFieldTypeDeclaration(@Nullable PsiElement element) {
+        PsiElement parent = element != null ? element.getParent() : null;
+        ASTNode node = parent != null ? parent.getNode() : null;
+        ASTNode normalTypeNode = node != null ? node.getTreeParent() : null;
+        ASTNode fieldNode = normalTypeNode != null ? normalTypeNode.getTreeParent() : null;
+        return fieldNode != null && fieldNode.getElementType().equals(TYPE_FIELD);
+    }
+
+    @Nullable
+    private static PsiElement prevVisibleLeafOrNewLine(@NotNull PsiElement element) {
+        PsiElement prevLeaf = element;
+        while ((prevLeaf = PsiTreeUtil.prevLeaf(prevLeaf)) != null) {
+            if (prevLeaf instanceof PsiComment || prevLeaf instanceof PsiErrorElement) {
+                continue;
+            }
+            if (prevLeaf instanceof PsiWhiteSpace) {
+                if (prevLeaf.textContains('\n')) {
+                    return prevLeaf;
+                }
+                continue;
+            }
+            break;
+        }
+        return prevLeaf;
+    }
+
+    @Nullable
+    private static String findFieldName(@NotNull PsiElement leaf) {
+        for (ASTNode node = leaf.getNode(); node != null; node = node.getTreeParent()) {
+            IElementType type = node.getElementType();
+            if (type.equals(NORMAL_FIELD)) {
+                ASTNode fieldNameNode = node.getFirstChildNode();
+                if (fieldNameNode == null) {
+                    return null;
+                }
+                if (fieldNameNode.getElementType().equals(FIELD_NAME)) {
+                    return fieldNameNode.getText();
+                }
+            } else if (type.equals(FIELD_NAME)) {
+                return node.getText();
+            }
+        }
+        return null;
+    }
+}
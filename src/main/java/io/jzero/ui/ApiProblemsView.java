@@ -0,0 +1,127 @@
+package io.jzero.ui;
+
+import io.jzero.core.ApiProblem;
+import io.jzero.language.ApiBatchInspector;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.content.ContentManager;
+import com.intellij.ui.treeStructure.Tree;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * Results of "Inspect All .api Files", shown as a tab of the Jzero tool window, grouped by file.
+ */
+public class ApiProblemsView extends SimpleToolWindowPanel {
+    private static final String TITLE = "Api Problems";
+
+    private final Project project;
+    private final Tree tree = new Tree();
+
+    private ApiProblemsView(@NotNull Project project) {
+        super(true, true);
+        this.project = project;
+        tree.setRootVisible(true);
+        tree.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    navigate();
+                }
+            }
+        });
+        tree.registerKeyboardAction(e -> navigate(), KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), JComponent.WHEN_FOCUSED);
+        setContent(ScrollPaneFactory.createScrollPane(tree));
+    }
+
+    /**
+     * Shows the reports in the Jzero tool window, replacing the previous run. Must be called on the EDT.
+     */
+    public static void show(@NotNull Project project, @NotNull List<ApiBatchInspector.FileReport> reports, int fileCount) {
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(JzeroToolWindowFactory.ID);
+        if (toolWindow == null) {
+            return;
+        }
+        ContentManager contentManager = toolWindow.getContentManager();
+        Content content = contentManager.findContent(TITLE);
+        if (content == null) {
+            content = ContentFactory.getInstance().createContent(new ApiProblemsView(project), TITLE, false);
+            contentManager.addContent(content);
+        }
+        ((ApiProblemsView) content.getComponent()).setReports(reports, fileCount);
+        contentManager.setSelectedContent(content);
+        toolWindow.activate(null);
+    }
+
+    private void setReports(@NotNull List<ApiBatchInspector.FileReport> reports, int fileCount) {
+        int problemCount = 0;
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+        for (ApiBatchInspector.FileReport report : reports) {
+            VirtualFile file = report.getFile();
+            DefaultMutableTreeNode fileNode = new DefaultMutableTreeNode(new Item(file, 0, relativePath(file) + " (" + report.getProblems().size() + ")"));
+            for (ApiProblem problem : report.getProblems()) {
+                String location = report.getLine(problem) + ": ";
+                fileNode.add(new DefaultMutableTreeNode(new Item(file, problem.getStart(), location + problem.getMessage())));
+            }
+            problemCount += report.getProblems().size();
+            root.add(fileNode);
+        }
+        root.setUserObject(problemCount + " problems in " + reports.size() + " of " + fileCount + " .api files");
+        tree.setModel(new DefaultTreeModel(root));
+        for (int i = 0; i < tree.getRowCount(); i++) {
+            tree.expandRow(i);
+        }
+    }
+
+    @NotNull
+    private String relativePath(@NotNull VirtualFile file) {
+        String basePath = project.getBasePath();
+        if (basePath != null && file.getPath().startsWith(basePath + "/")) {
+            return file.getPath().substring(basePath.length() + 1);
+        }
+        return file.getPath();
+    }
+
+    private void navigate() {
+        TreePath path = tree.getSelectionPath();
+        if (path == null) {
+            return;
+        }
+        Object object = ((DefaultMutableTreeNode) path.getLastPathComponent()).getUserObject();
+        if (object instanceof Item && ((Item) object).file.isValid()) {
+            new OpenFileDescriptor(project, ((Item) object).file, ((Item) object).offset).navigate(true);
+        }
+    }
+
+    private static class Item {
+        final VirtualFile file;
+        final int offset;
+        final String text;
+
+        Item(VirtualFile file, int offset, String text) {
+            this.file = file;
+            this.offset = offset;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
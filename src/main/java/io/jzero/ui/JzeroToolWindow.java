@@ -1,16 +1,36 @@
 package io.jzero.ui;
 
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.diagnostic.Log;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.table.JBTable;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Jzero Tool Window - API URL 输入框和弹窗
+ * Jzero Tool Window - timers and counters of the plugin's subsystems, see {@link Diagnostics}, above the
+ * recent entries of the plugin's {@link Log}.
+ * <p>
+ * Both are refreshed once a second, and only while the tool window is showing.
  */
 public class JzeroToolWindow extends SimpleToolWindowPanel {
-    private JTextField urlInputField;
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final MetricsModel model = new MetricsModel();
+    private final JBTextArea logArea = new JBTextArea();
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+    // entries appended to the log when it was last shown
+    private long shownLogEntries = -1;
 
     public JzeroToolWindow(Project project) {
         super(false, true);
@@ -18,16 +38,127 @@ public class JzeroToolWindow extends SimpleToolWindowPanel {
     }
 
     private void initUI() {
-        // 创建主面板
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        // 标题标签
-        JLabel titleLabel = new JLabel("");
+        JPanel header = new JPanel(new BorderLayout());
+        JLabel titleLabel = new JLabel("Diagnostics");
         titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, 14));
-        mainPanel.add(titleLabel, BorderLayout.NORTH);
+        header.add(titleLabel, BorderLayout.WEST);
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            Diagnostics.reset();
+            refresh();
+        });
+        header.add(resetButton, BorderLayout.EAST);
+        mainPanel.add(header, BorderLayout.NORTH);
+
+        JBTable table = new JBTable(model);
+        table.getColumnModel().getColumn(0).setPreferredWidth(120);
+        table.getColumnModel().getColumn(1).setPreferredWidth(200);
+        table.getColumnModel().getColumn(2).setPreferredWidth(70);
+        table.getColumnModel().getColumn(3).setPreferredWidth(300);
+
+        JBSplitter splitter = new JBSplitter(true, 0.5f);
+        splitter.setFirstComponent(ScrollPaneFactory.createScrollPane(table));
+        splitter.setSecondComponent(createLogPanel());
+        mainPanel.add(splitter, BorderLayout.CENTER);
 
-        // 设置内容
         setContent(mainPanel);
     }
-}
\ No newline at end of file
+
+    private JPanel createLogPanel() {
+        JPanel logPanel = new JPanel(new BorderLayout(0, 5));
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        header.add(new JLabel("Log level:"));
+        ComboBox<Log.Level> levelBox = new ComboBox<>(Log.Level.values());
+        levelBox.setSelectedItem(Log.getLevel());
+        levelBox.addActionListener(e -> Log.setLevel((Log.Level) levelBox.getSelectedItem()));
+        header.add(levelBox);
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> {
+            Log.clear();
+            refresh();
+        });
+        header.add(clearButton);
+        logPanel.add(header, BorderLayout.NORTH);
+
+        logArea.setEditable(false);
+        logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, logArea.getFont().getSize()));
+        logPanel.add(ScrollPaneFactory.createScrollPane(logArea), BorderLayout.CENTER);
+        return logPanel;
+    }
+
+    private void refresh() {
+        model.refresh();
+        long appended = Log.getAppended();
+        if (appended != shownLogEntries) {
+            shownLogEntries = appended;
+            logArea.setText(StringUtil.join(Log.getEntries(), "\n"));
+            logArea.setCaretPosition(logArea.getDocument().getLength());
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private static class MetricsModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Subsystem", "Metric", "Count", "Details"};
+
+        private List<Diagnostics.Metric> metrics = new ArrayList<>();
+        private long[] counts = new long[0];
+        private String[] summaries = new String[0];
+
+        // values are copied so that a repaint shows one consistent snapshot
+        void refresh() {
+            metrics = Diagnostics.getMetrics();
+            counts = new long[metrics.size()];
+            summaries = new String[metrics.size()];
+            for (int i = 0; i < metrics.size(); i++) {
+                counts[i] = metrics.get(i).getCount();
+                summaries[i] = metrics.get(i).getSummary();
+            }
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return metrics.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            switch (column) {
+                case 0:
+                    return metrics.get(row).getSubsystem();
+                case 1:
+                    return metrics.get(row).getName();
+                case 2:
+                    return counts[row];
+                default:
+                    return summaries[row];
+            }
+        }
+    }
+}
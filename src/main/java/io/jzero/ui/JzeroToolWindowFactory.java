@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
  * Jzero Tool Window Factory - 创建 Jzero 工具窗口
  */
 public class JzeroToolWindowFactory implements ToolWindowFactory {
+    public static final String ID = "Jzero";
 
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
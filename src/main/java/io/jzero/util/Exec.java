@@ -1,6 +1,8 @@
 package io.jzero.util;
 
 import io.jzero.contsant.Constant;
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.diagnostic.Log;
 import io.jzero.io.IO;
 import io.jzero.notification.Notification;
 import com.intellij.execution.configurations.GeneralCommandLine;
@@ -15,6 +17,8 @@ import java.util.Arrays;
 import java.util.List;
 
 public class Exec {
+    private static final Log LOG = Log.of(Exec.class);
+    private static final Diagnostics.Timer EXEC_TIMER = Diagnostics.timer("processes", "exec");
     private static final String SH = "sh";
     private static final String FISH = "fish";
     private static final String DEFAULT_SHELL = SH;
@@ -39,6 +43,12 @@ public class Exec {
     }
 
     public static String lookPath(Project project, String s) {
+        try (Notification.Batch ignored = Notification.getInstance().batch(project, "lookup " + s)) {
+            return doLookPath(project, s);
+        }
+    }
+
+    private static String doLookPath(Project project, String s) {
         String os = System.getProperty("os.name");
         os = os.toLowerCase();
         String pathSeparator = DEFAULT_SEPARATOR;
@@ -155,13 +165,19 @@ public class Exec {
             if (workingDir != null && !workingDir.trim().isEmpty()) {
                 commandLine.setWorkDirectory(workingDir);
             }
-            ProcessOutput processOutput = ExecUtil.execAndGetOutput(commandLine);
+            long start = EXEC_TIMER.start();
+            ProcessOutput processOutput;
+            try {
+                processOutput = ExecUtil.execAndGetOutput(commandLine);
+            } finally {
+                EXEC_TIMER.stop(start);
+            }
             result.setStdout(processOutput.getStdout());
             result.setStderr(processOutput.getStderr());
             result.setExitCode(processOutput.getExitCode());
             return result;
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.warn("{0} failed", arg, e);
             result.setExitCode(1);
             result.setStderr(e.toString());
         }
@@ -169,6 +185,12 @@ public class Exec {
     }
 
     public static boolean runGoctl(Project project, String arg) {
+        try (Notification.Batch ignored = Notification.getInstance().batch(project, "goctl " + arg)) {
+            return doRunGoctl(project, arg);
+        }
+    }
+
+    private static boolean doRunGoctl(Project project, String arg) {
         String goctl = lookPath(project, "goctl");
         if (StringUtil.isEmptyOrSpaces(goctl)) {
             String userHome = System.getProperty("user.home");
@@ -1,5 +1,7 @@
 package io.jzero.util;
 
+import io.jzero.diagnostic.Diagnostics;
+import io.jzero.diagnostic.Log;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
@@ -24,6 +26,8 @@ import java.util.ArrayList;
 public class JzeroConfigReader {
 
     private static final String CONFIG_FILENAME = ".jzero.yaml";
+    private static final Log LOG = Log.of(JzeroConfigReader.class);
+    private static final Diagnostics.CacheStats CONFIG_CACHE = Diagnostics.cache("caches", ".jzero.yaml config");
     private static JzeroConfig cachedConfig = null;
     private static String cachedApiPath = null;
 
@@ -87,7 +91,10 @@ public class JzeroConfigReader {
 
         // Load config if not cached
         if (cachedConfig == null) {
+            CONFIG_CACHE.miss();
             cachedConfig = loadConfig(project, apiFile);
+        } else {
+            CONFIG_CACHE.hit();
         }
 
         if (cachedConfig != null) {
@@ -173,13 +180,12 @@ public class JzeroConfigReader {
             Object topLevelStyle = configMap.get("style");
             if (topLevelStyle instanceof String) {
                 config.setStyle((String) topLevelStyle);
-                System.out.println("DEBUG: Top-level style found: " + topLevelStyle);
+                LOG.debug("top-level style {0} found in {1}", topLevelStyle, configFile.getPath());
             }
 
             // 获取 gen 配置
             Object genConfig = configMap.get("gen");
-            System.out.println("DEBUG: genConfig type: " + (genConfig != null ? genConfig.getClass().getSimpleName() : "null"));
-            System.out.println("DEBUG: genConfig value: " + genConfig);
+            LOG.debug("gen config {0} in {1}", genConfig, configFile.getPath());
 
             if (genConfig instanceof Map) {
                 // 安全的类型转换
@@ -187,7 +193,6 @@ public class JzeroConfigReader {
                 try {
                     genMap = (Map<String, Object>) genConfig;
                 } catch (ClassCastException e) {
-                    System.out.println("DEBUG: Failed to cast genConfig to Map");
                     return config; // Return config with only top-level style if available
                 }
 
@@ -206,9 +211,11 @@ public class JzeroConfigReader {
 
         } catch (IOException e) {
             // 读取文件失败
+            LOG.warn("cannot read {0}", configFile.getPath(), e);
             return null;
         } catch (Exception e) {
             // YAML 解析失败
+            LOG.warn("cannot parse {0}", configFile.getPath(), e);
             return null;
         }
     }